@@ -0,0 +1,33 @@
+package edu.smcm.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the GC profiler attached, so that the allocation
+ * rate (gc.alloc.rate.norm, bytes per operation) is reported next to the
+ * time per operation. The usual JMH command line options are accepted.
+ */
+public class BenchmarkMain {
+
+	/**
+	 * Run the benchmarks.
+	 *
+	 * @param args
+	 *            JMH command line options
+	 * @throws RunnerException
+	 *             if the benchmarks cannot be run
+	 * @throws CommandLineOptionException
+	 *             if the options are malformed
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions command_line;
+
+		command_line = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(command_line).addProfiler(GCProfiler.class).build()).run();
+	}
+}
@@ -0,0 +1,88 @@
+package edu.smcm.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smcm.ai.search.Heuristic;
+import edu.smcm.ai.sliding_block.LinearConflict;
+import edu.smcm.ai.sliding_block.ManhattanDistance;
+import edu.smcm.ai.sliding_block.OutOfPlace;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * Benchmarks of full heuristic evaluation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HeuristicBenchmark {
+
+	/**
+	 * Number of instances in each suite.
+	 */
+	private static final int count = 1024;
+
+	@Param({ "3", "4", "5" })
+	public int size;
+
+	@Param({ "40" })
+	public int depth;
+
+	private SlidingBlockState[] states;
+
+	private Heuristic manhattan_distance;
+
+	private Heuristic out_of_place;
+
+	private Heuristic linear_conflict;
+
+	private int next;
+
+	@Setup
+	public void setup() {
+		states = Instances.suite(size, depth, count);
+		manhattan_distance = new ManhattanDistance();
+		out_of_place = new OutOfPlace();
+		linear_conflict = new LinearConflict();
+		next = 0;
+	}
+
+	/**
+	 * The next instance, cycling through the suite.
+	 *
+	 * @return an instance
+	 */
+	private SlidingBlockState next() {
+		next = (next + 1) & (count - 1);
+		return states[next];
+	}
+
+	@Benchmark
+	public double manhattanDistance() {
+		return manhattan_distance.cost(next());
+	}
+
+	@Benchmark
+	public double outOfPlace() {
+		return out_of_place.cost(next());
+	}
+
+	@Benchmark
+	public double linearConflict() {
+		return linear_conflict.cost(next());
+	}
+}
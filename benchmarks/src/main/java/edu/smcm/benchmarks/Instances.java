@@ -0,0 +1,46 @@
+package edu.smcm.benchmarks;
+
+import edu.smcm.ai.sliding_block.BoardGeometry;
+import edu.smcm.ai.sliding_block.InstanceGenerator;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * Fixed-seed suites of Sliding Block Puzzle instances.
+ *
+ * Every benchmark run sees exactly the same instances, so results can be
+ * compared between changes.
+ */
+public class Instances {
+
+	/**
+	 * The seed used for every suite.
+	 */
+	public static final long seed = 20161017L;
+
+	/**
+	 * Make a suite of instances by random walks from the goal.
+	 *
+	 * A walk never immediately undoes its previous move, so instances are
+	 * not trivially shallower than the walk.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param depth
+	 *            length of each random walk
+	 * @param count
+	 *            number of instances
+	 * @return the instances
+	 */
+	public static SlidingBlockState[] suite(int size, int depth, int count) {
+		InstanceGenerator generator;
+		SlidingBlockState[] result;
+
+		generator = new InstanceGenerator(seed ^ (size * 1000L + depth));
+		result = new SlidingBlockState[count];
+		for (int index = 0; index < count; index++) {
+			result[index] = generator.walk(BoardGeometry.of(size), depth);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,146 @@
+package edu.smcm.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smcm.ai.search.AStar;
+import edu.smcm.ai.search.Action;
+import edu.smcm.ai.search.ArenaAStar;
+import edu.smcm.ai.search.Search;
+import edu.smcm.ai.search.UniformCostSearch;
+import edu.smcm.ai.sliding_block.ManhattanDistance;
+import edu.smcm.ai.sliding_block.SlidingBlockProblem;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * Benchmarks of complete searches over fixed suites of instances.
+ *
+ * Each invocation solves every instance of a suite once, so the score is the
+ * time to solve the whole suite.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+	/**
+	 * Number of instances in each suite.
+	 */
+	private static final int count = 16;
+
+	/**
+	 * A suite of problems, described as size x depth.
+	 */
+	@State(Scope.Thread)
+	public static class AStarSuite {
+
+		@Param({ "3x20", "3x40", "4x20", "4x40" })
+		public String suite;
+
+		private SlidingBlockProblem[] problems;
+
+		private Search search_engine;
+
+		private Search arena_engine;
+
+		@Setup
+		public void setup() {
+			problems = problems(suite);
+			search_engine = new AStar(new ManhattanDistance());
+			arena_engine = new ArenaAStar(new ManhattanDistance());
+		}
+	}
+
+	/**
+	 * A suite of problems small enough for an uninformed search.
+	 */
+	@State(Scope.Thread)
+	public static class UniformCostSuite {
+
+		@Param({ "3x10", "3x16" })
+		public String suite;
+
+		private SlidingBlockProblem[] problems;
+
+		private Search search_engine;
+
+		@Setup
+		public void setup() {
+			problems = problems(suite);
+			search_engine = new UniformCostSearch();
+		}
+	}
+
+	@Benchmark
+	public int aStar(AStarSuite suite) {
+		return solve(suite.search_engine, suite.problems);
+	}
+
+	@Benchmark
+	public int arenaAStar(AStarSuite suite) {
+		return solve(suite.arena_engine, suite.problems);
+	}
+
+	@Benchmark
+	public int uniformCostSearch(UniformCostSuite suite) {
+		return solve(suite.search_engine, suite.problems);
+	}
+
+	/**
+	 * Solve every problem in a suite.
+	 *
+	 * @param search_engine
+	 *            search to use
+	 * @param problems
+	 *            problems to solve
+	 * @return total length of the solutions, so the work cannot be eliminated
+	 */
+	private static int solve(Search search_engine, SlidingBlockProblem[] problems) {
+		int total;
+		List<Action> solution;
+
+		total = 0;
+		for (SlidingBlockProblem problem : problems) {
+			solution = search_engine.search(problem);
+			total = total + solution.size();
+		}
+
+		return total;
+	}
+
+	/**
+	 * Make the problems of a suite.
+	 *
+	 * @param suite
+	 *            the suite, as size x depth
+	 * @return the problems
+	 */
+	private static SlidingBlockProblem[] problems(String suite) {
+		String[] parts;
+		SlidingBlockState[] states;
+		SlidingBlockProblem[] result;
+
+		parts = suite.split("x");
+		states = Instances.suite(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), count);
+		result = new SlidingBlockProblem[states.length];
+		for (int index = 0; index < states.length; index++) {
+			result[index] = new SlidingBlockProblem(states[index]);
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,93 @@
+package edu.smcm.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.smcm.ai.search.Action;
+import edu.smcm.ai.sliding_block.SlidingBlockAction;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * Benchmarks of the SlidingBlockState operations used on every expansion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateBenchmark {
+
+	/**
+	 * Number of instances in each suite.
+	 */
+	private static final int count = 1024;
+
+	@Param({ "3", "4", "5" })
+	public int size;
+
+	@Param({ "10", "40" })
+	public int depth;
+
+	private SlidingBlockState[] states;
+
+	private SlidingBlockState[] copies;
+
+	private SlidingBlockAction[] actions;
+
+	private int next;
+
+	@Setup
+	public void setup() {
+		List<Action> legal;
+
+		states = Instances.suite(size, depth, count);
+		copies = new SlidingBlockState[count];
+		actions = new SlidingBlockAction[count];
+		for (int index = 0; index < count; index++) {
+			copies[index] = new SlidingBlockState(states[index]);
+			legal = states[index].actions();
+			actions[index] = (SlidingBlockAction) legal.get(index % legal.size());
+		}
+		next = 0;
+	}
+
+	/**
+	 * The index of the next instance, cycling through the suite.
+	 *
+	 * @return index of an instance
+	 */
+	private int next() {
+		next = (next + 1) & (count - 1);
+		return next;
+	}
+
+	@Benchmark
+	public SlidingBlockState result() {
+		int index = next();
+		return states[index].result(actions[index]);
+	}
+
+	@Benchmark
+	public int stateHashCode() {
+		return states[next()].hashCode();
+	}
+
+	@Benchmark
+	public boolean stateEquals() {
+		int index = next();
+		return states[index].equals(copies[index]);
+	}
+}
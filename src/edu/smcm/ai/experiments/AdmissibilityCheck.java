@@ -0,0 +1,95 @@
+package edu.smcm.ai.experiments;
+
+import java.util.List;
+
+import edu.smcm.ai.search.AStar;
+import edu.smcm.ai.search.Action;
+import edu.smcm.ai.search.Heuristic;
+import edu.smcm.ai.sliding_block.LinearConflict;
+import edu.smcm.ai.sliding_block.ManhattanDistance;
+import edu.smcm.ai.sliding_block.OutOfPlace;
+import edu.smcm.ai.sliding_block.SlidingBlockAction;
+import edu.smcm.ai.sliding_block.SlidingBlockProblem;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+import edu.smcm.ai.sliding_block.WalkingDistance;
+
+/**
+ * Check that the sliding block heuristics are admissible.
+ *
+ * Random instances are solved optimally, and every state on each optimal
+ * path is checked: no heuristic may exceed the true cost to the goal from
+ * it. The value each heuristic reaches incrementally along the path must also
+ * agree with a full evaluation. The mean heuristic value of the initial states
+ * is printed against the mean optimal cost, as a measure of strength.
+ */
+public class AdmissibilityCheck {
+
+	/**
+	 * A program to check the heuristics.
+	 *
+	 * The arguments are the size of the puzzles, the number of random moves
+	 * and the number of instances; they default to 3, 30 and 200.
+	 *
+	 * @param args
+	 *            command line arguments
+	 */
+	public static void main(String[] args) {
+		int size = (args.length > 0) ? Integer.parseInt(args[0]) : 3;
+		int moves = (args.length > 1) ? Integer.parseInt(args[1]) : 30;
+		int trials = (args.length > 2) ? Integer.parseInt(args[2]) : 200;
+		String[] names = { "Out Of Place", "Manhattan Distance", "Linear Conflict", "Walking Distance" };
+		Heuristic[] heuristics = { new OutOfPlace(), new ManhattanDistance(), new LinearConflict(),
+				new WalkingDistance() };
+		double[] root_total = new double[heuristics.length];
+		double[] incremental = new double[heuristics.length];
+		int[] violations = new int[heuristics.length];
+		int[] mismatches = new int[heuristics.length];
+		AStar solver = new AStar(new ManhattanDistance());
+		double optimal_total = 0;
+		SlidingBlockProblem problem;
+		SlidingBlockState state;
+		SlidingBlockState next;
+		List<Action> solution;
+		double value;
+
+		for (int trial = 0; trial < trials; trial++) {
+			problem = new SlidingBlockProblem(size, moves);
+			solution = solver.search(problem);
+			optimal_total += solution.size();
+
+			state = problem.initialState();
+			for (int index = 0; index < heuristics.length; index++) {
+				incremental[index] = heuristics[index].cost(state);
+				root_total[index] += incremental[index];
+			}
+
+			for (int step = 0; step <= solution.size(); step++) {
+				for (int index = 0; index < heuristics.length; index++) {
+					value = heuristics[index].cost(state);
+					if (value > solution.size() - step) {
+						violations[index]++;
+					}
+					if (value != incremental[index]) {
+						mismatches[index]++;
+					}
+				}
+
+				if (step < solution.size()) {
+					next = state.result((SlidingBlockAction) solution.get(step));
+					for (int index = 0; index < heuristics.length; index++) {
+						incremental[index] = heuristics[index].cost(state, incremental[index], solution.get(step), next);
+					}
+					state = next;
+				}
+			}
+		}
+
+		System.out.printf("%d instances of size %d, %d random moves, mean optimal cost %.2f\n", trials, size, moves,
+				optimal_total / trials);
+		System.out.printf("%-20s %10s %12s %12s\n", "Heuristic", "Mean h", "Violations", "Mismatches");
+		for (int index = 0; index < heuristics.length; index++) {
+			System.out.printf("%-20s %10.2f %12d %12d\n", names[index], root_total[index] / trials,
+					violations[index], mismatches[index]);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package edu.smcm.ai.experiments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.smcm.ai.search.Action;
+import edu.smcm.ai.search.Problem;
+import edu.smcm.ai.search.Search;
+
+/**
+ * Solve a batch of independent problems on a pool of threads.
+ *
+ * A Search carries mutable state between calls, so each worker thread gets
+ * its own search engine from a supplier. Outcomes are always returned in the
+ * order of the problems, whatever order they were solved in, so experiments
+ * give the same output however many threads are used.
+ */
+public class BatchSolver {
+
+	/**
+	 * The outcome of solving one problem.
+	 */
+	public static class Outcome {
+		private Problem problem;
+		private List<Action> solution;
+		private int nodes_generated;
+
+		public Outcome(Problem problem, List<Action> solution, int nodes_generated) {
+			this.problem = problem;
+			this.solution = solution;
+			this.nodes_generated = nodes_generated;
+		}
+
+		public Problem problem() {
+			return problem;
+		}
+
+		public List<Action> solution() {
+			return solution;
+		}
+
+		public int nodesGenerated() {
+			return nodes_generated;
+		}
+	}
+
+	/**
+	 * Supplier of a search engine for each worker.
+	 */
+	private Supplier<Search> engines;
+
+	/**
+	 * The number of worker threads.
+	 */
+	private int workers;
+
+	/**
+	 * A constructor using one worker per available processor.
+	 *
+	 * @param engines
+	 *            supplier of a new search engine for each worker
+	 */
+	public BatchSolver(Supplier<Search> engines) {
+		this(engines, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param engines
+	 *            supplier of a new search engine for each worker
+	 * @param workers
+	 *            number of worker threads
+	 */
+	public BatchSolver(Supplier<Search> engines, int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+
+		this.engines = engines;
+		this.workers = workers;
+	}
+
+	/**
+	 * Solve a batch of problems.
+	 *
+	 * @param problems
+	 *            problems to be solved
+	 * @return outcomes in the same order as the problems
+	 */
+	public List<Outcome> solve(List<Problem> problems) {
+		ExecutorService pool;
+		ThreadLocal<Search> engine;
+		List<Future<Outcome>> futures;
+		List<Outcome> outcomes;
+
+		pool = Executors.newFixedThreadPool(workers);
+		engine = ThreadLocal.withInitial(engines);
+		futures = new ArrayList<Future<Outcome>>(problems.size());
+		outcomes = new ArrayList<Outcome>(problems.size());
+
+		try {
+			for (final Problem problem : problems) {
+				futures.add(pool.submit(new Callable<Outcome>() {
+					@Override
+					public Outcome call() {
+						Search search_engine = engine.get();
+						List<Action> solution = search_engine.search(problem);
+
+						return new Outcome(problem, solution, search_engine.nodesGenerated());
+					}
+				}));
+			}
+
+			for (Future<Outcome> future : futures) {
+				outcomes.add(future.get());
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", exception);
+		} catch (ExecutionException exception) {
+			throw new IllegalStateException("Search failed", exception.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		return outcomes;
+	}
+
+	/**
+	 * Solve a batch of problems and record the results.
+	 *
+	 * The number of nodes generated is recorded in the result set for the
+	 * length of the solution, in the order of the problems.
+	 *
+	 * @param problems
+	 *            problems to be solved
+	 * @param results
+	 *            resulting data
+	 * @return outcomes in the same order as the problems
+	 */
+	public List<Outcome> solve(List<Problem> problems, Results results) {
+		List<Outcome> outcomes;
+
+		outcomes = solve(problems);
+		for (Outcome outcome : outcomes) {
+			results.add(outcome.solution().size(), outcome.nodesGenerated());
+		}
+
+		return outcomes;
+	}
+}
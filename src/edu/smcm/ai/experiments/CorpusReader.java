@@ -0,0 +1,194 @@
+package edu.smcm.ai.experiments;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import edu.smcm.ai.sliding_block.BoardGeometry;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * A source of instances read from a binary corpus (see CorpusWriter).
+ *
+ * The corpus is mapped into memory rather than read, so opening it takes the
+ * same time however many instances it holds, and only the pages touched are
+ * ever read from disk. Large corpora are mapped in several segments, each a
+ * whole number of records. An instance is only decoded when it is asked for,
+ * either in order through next() or by its number through get(). get() only
+ * reads the mapping, so any number of threads may call it at once.
+ */
+public class CorpusReader extends InstanceSource {
+
+	/**
+	 * The largest number of bytes mapped in one segment.
+	 */
+	private static final long segment_limit = 1L << 30;
+
+	/**
+	 * The file being read.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The mapped segments of the file after the header.
+	 */
+	private MappedByteBuffer[] segments;
+
+	/**
+	 * The number of records in each segment.
+	 */
+	private long segment_records;
+
+	/**
+	 * The shape of every board in the corpus.
+	 */
+	private BoardGeometry geometry;
+
+	/**
+	 * The length of a record in bytes.
+	 */
+	private int record_length;
+
+	/**
+	 * Whether each record is the key of a board rather than its tiles.
+	 */
+	private boolean keyed;
+
+	/**
+	 * The number of instances in the corpus.
+	 */
+	private long count;
+
+	/**
+	 * The number of the instance next() returns next.
+	 */
+	private long cursor;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param file
+	 *            the corpus
+	 * @throws IOException
+	 *             if the file cannot be opened or is not a corpus
+	 */
+	public CorpusReader(File file) throws IOException {
+		ByteBuffer header;
+		long length;
+		long offset;
+
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			header = ByteBuffer.allocate(CorpusWriter.header_length);
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					break;
+				}
+			}
+			header.flip();
+			if (header.remaining() < CorpusWriter.header_length || header.getInt() != CorpusWriter.magic) {
+				throw new IOException("Not a corpus: " + file);
+			}
+			if (header.getInt() != CorpusWriter.version) {
+				throw new IOException("Unsupported corpus version: " + file);
+			}
+
+			geometry = BoardGeometry.of(header.getInt(), header.getInt());
+			record_length = header.getInt();
+			count = header.getLong();
+			keyed = new SlidingBlockState(geometry).hasKey();
+			if (record_length != CorpusWriter.recordLength(geometry)
+					|| channel.size() != CorpusWriter.header_length + count * record_length) {
+				throw new IOException("Corpus is damaged: " + file);
+			}
+
+			segment_records = segment_limit / record_length;
+			segments = new MappedByteBuffer[(int) ((count + segment_records - 1) / segment_records)];
+			for (int segment = 0; segment < segments.length; segment++) {
+				offset = segment * segment_records;
+				length = Math.min(segment_records, count - offset) * record_length;
+				segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY,
+						CorpusWriter.header_length + offset * record_length, length);
+			}
+		} catch (IOException | IllegalArgumentException exception) {
+			channel.close();
+			throw (exception instanceof IOException) ? (IOException) exception
+					: new IOException("Corpus is damaged: " + file, exception);
+		}
+
+		this.cursor = 0;
+	}
+
+	/**
+	 * The shape of every board in the corpus.
+	 *
+	 * @return the geometry of the boards
+	 */
+	public BoardGeometry geometry() {
+		return geometry;
+	}
+
+	/**
+	 * The number of instances in the corpus.
+	 *
+	 * @return number of instances
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * Decode an instance by its number.
+	 *
+	 * @param instance
+	 *            number of the instance, from 0
+	 * @return the initial state
+	 */
+	public SlidingBlockState get(long instance) {
+		MappedByteBuffer segment;
+		int position;
+		int[] tiles;
+
+		if (instance < 0 || instance >= count) {
+			throw new IndexOutOfBoundsException("Instance " + instance + " of " + count);
+		}
+
+		segment = segments[(int) (instance / segment_records)];
+		position = (int) (instance % segment_records) * record_length;
+
+		if (keyed) {
+			return new SlidingBlockState(geometry, segment.getLong(position));
+		}
+
+		tiles = new int[geometry.tiles()];
+		for (int index = 0; index < tiles.length; index++) {
+			tiles[index] = segment.get(position + index) & 0xFF;
+		}
+
+		return new SlidingBlockState(geometry, tiles);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.experiments.InstanceSource#next()
+	 */
+	@Override
+	public SlidingBlockState next() {
+		return (cursor == count) ? null : get(cursor++);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.experiments.InstanceSource#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		segments = null;
+		channel.close();
+	}
+}
@@ -0,0 +1,179 @@
+package edu.smcm.ai.experiments;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import edu.smcm.ai.sliding_block.BoardGeometry;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * A writer of a binary corpus of Sliding Block Puzzle instances.
+ *
+ * A corpus holds boards of one shape in fixed-length records after a header,
+ * so any instance can be found from its number without reading the others
+ * (see CorpusReader). The header holds a magic number, the version of the
+ * format, the rows and columns of the board, the length of a record and the
+ * number of records. A board of up to 16 tiles is stored as its key, eight
+ * bytes; a larger board is stored as one byte for each tile, row by row. The
+ * number of records is written when the corpus is closed.
+ */
+public class CorpusWriter implements Closeable {
+
+	/**
+	 * Magic number at the start of every corpus.
+	 */
+	static final int magic = 0x53425043; // "SBPC"
+
+	/**
+	 * Version of the format.
+	 */
+	static final int version = 1;
+
+	/**
+	 * Length of the header: magic, version, rows, columns, record length and
+	 * count.
+	 */
+	static final int header_length = 28;
+
+	/**
+	 * Size of the I/O buffer.
+	 */
+	private static final int io_buffer_size = 1 << 16;
+
+	/**
+	 * The file being written.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Records waiting to be written.
+	 */
+	private ByteBuffer buffer;
+
+	/**
+	 * The shape of every board in the corpus.
+	 */
+	private BoardGeometry geometry;
+
+	/**
+	 * The length of a record in bytes.
+	 */
+	private int record_length;
+
+	/**
+	 * The number of records written.
+	 */
+	private long count;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param file
+	 *            file to write, replacing any that exists
+	 * @param geometry
+	 *            shape of every board in the corpus
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	public CorpusWriter(File file, BoardGeometry geometry) throws IOException {
+		this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		this.buffer = ByteBuffer.allocateDirect(io_buffer_size);
+		this.geometry = geometry;
+		this.record_length = recordLength(geometry);
+		this.count = 0;
+		channel.position(header_length);
+	}
+
+	/**
+	 * The length of a record for boards of a shape.
+	 *
+	 * @param geometry
+	 *            shape of the boards
+	 * @return length of a record in bytes
+	 */
+	static int recordLength(BoardGeometry geometry) {
+		return new SlidingBlockState(geometry).hasKey() ? Long.BYTES : geometry.tiles();
+	}
+
+	/**
+	 * The number of instances written.
+	 *
+	 * @return number of records
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * Write an instance.
+	 *
+	 * @param state
+	 *            the initial state, which must have the shape of the corpus
+	 * @throws IOException
+	 *             if the record cannot be written
+	 */
+	public void write(SlidingBlockState state) throws IOException {
+		if (state.geometry() != geometry) {
+			throw new IllegalArgumentException("A " + state.geometry() + " board in a " + geometry + " corpus");
+		}
+
+		if (buffer.remaining() < record_length) {
+			drain();
+		}
+
+		if (state.hasKey()) {
+			buffer.putLong(state.key());
+		} else {
+			for (int index = 0; index < geometry.tiles(); index++) {
+				buffer.put((byte) state.tileAt(index));
+			}
+		}
+
+		count++;
+	}
+
+	/**
+	 * Write the records still buffered and then the header.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		ByteBuffer header;
+
+		try {
+			drain();
+			header = ByteBuffer.allocate(header_length);
+			header.putInt(magic).putInt(version).putInt(geometry.rows()).putInt(geometry.columns())
+					.putInt(record_length).putLong(count).flip();
+			while (header.hasRemaining()) {
+				channel.write(header, header.position());
+			}
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Write the buffered records.
+	 *
+	 * @throws IOException
+	 *             if they cannot be written
+	 */
+	private void drain() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+}
@@ -0,0 +1,93 @@
+package edu.smcm.ai.experiments;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A buffered sink of one CSV record per solved instance.
+ *
+ * Each record holds the instance number, the length of the solution (-1 if
+ * none was found), the numbers of nodes generated and expanded, and the wall
+ * time in nanoseconds.
+ */
+public class CsvResultWriter implements Closeable {
+
+	/**
+	 * The header line of the file.
+	 */
+	public static final String header = "instance,length,generated,expanded,time_ns";
+
+	/**
+	 * The output being written.
+	 */
+	private Writer output;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param file
+	 *            file to write
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	public CsvResultWriter(File file) throws IOException {
+		this(new FileWriter(file));
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param output
+	 *            where to write the records
+	 * @throws IOException
+	 *             if the header cannot be written
+	 */
+	public CsvResultWriter(Writer output) throws IOException {
+		this.output = new BufferedWriter(output, 1 << 16);
+		this.output.write(header);
+		this.output.write('\n');
+	}
+
+	/**
+	 * Write a record.
+	 *
+	 * @param instance
+	 *            the instance number
+	 * @param length
+	 *            the length of the solution, or -1 if there is none
+	 * @param generated
+	 *            number of nodes generated
+	 * @param expanded
+	 *            number of nodes expanded
+	 * @param time
+	 *            wall time in nanoseconds
+	 * @throws IOException
+	 *             if the record cannot be written
+	 */
+	public void write(long instance, int length, long generated, long expanded, long time) throws IOException {
+		output.write(Long.toString(instance));
+		output.write(',');
+		output.write(Integer.toString(length));
+		output.write(',');
+		output.write(Long.toString(generated));
+		output.write(',');
+		output.write(Long.toString(expanded));
+		output.write(',');
+		output.write(Long.toString(time));
+		output.write('\n');
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.io.Closeable#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
@@ -0,0 +1,249 @@
+package edu.smcm.ai.experiments;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import edu.smcm.ai.search.AStar;
+import edu.smcm.ai.search.Action;
+import edu.smcm.ai.search.Search;
+import edu.smcm.ai.search.SearchMetrics;
+import edu.smcm.ai.sliding_block.BoardGeometry;
+import edu.smcm.ai.sliding_block.ManhattanDistance;
+import edu.smcm.ai.sliding_block.SlidingBlockProblem;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * Solve a stream of instances and write one CSV record for each as it goes.
+ *
+ * Unlike BatchSolver, neither the instances nor the solutions are kept: an
+ * instance is read only when there is room for it, and only a small record of
+ * its outcome is held until it is written. At most a fixed window of
+ * instances is in flight at once, so memory is bounded however long the
+ * stream is. Records are written in the order of the instances. Each worker
+ * thread has its own search engine with its own SearchMetrics.
+ */
+public class ExperimentPipeline {
+
+	/**
+	 * The outcome of solving one instance.
+	 */
+	private static class Record {
+		private int length;
+		private long generated;
+		private long expanded;
+		private long time;
+
+		public Record(List<Action> solution, SearchMetrics metrics) {
+			this.length = (null == solution) ? -1 : solution.size();
+			this.generated = metrics.generated();
+			this.expanded = metrics.expanded();
+			this.time = metrics.wallTime();
+		}
+	}
+
+	/**
+	 * A search engine and the metrics attached to it.
+	 */
+	private static class Worker {
+		private Search engine;
+		private SearchMetrics metrics;
+
+		public Worker(Search engine) {
+			this.engine = engine;
+			this.metrics = new SearchMetrics();
+			engine.listener(metrics);
+		}
+	}
+
+	/**
+	 * Supplier of a search engine for each worker.
+	 */
+	private Supplier<Search> engines;
+
+	/**
+	 * The number of worker threads.
+	 */
+	private int workers;
+
+	/**
+	 * The largest number of instances in flight at once.
+	 */
+	private int window;
+
+	/**
+	 * A constructor using one worker per available processor.
+	 *
+	 * @param engines
+	 *            supplier of a new search engine for each worker
+	 */
+	public ExperimentPipeline(Supplier<Search> engines) {
+		this(engines, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * A constructor with a window of four instances per worker.
+	 *
+	 * @param engines
+	 *            supplier of a new search engine for each worker
+	 * @param workers
+	 *            number of worker threads
+	 */
+	public ExperimentPipeline(Supplier<Search> engines, int workers) {
+		this(engines, workers, 4 * workers);
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param engines
+	 *            supplier of a new search engine for each worker
+	 * @param workers
+	 *            number of worker threads
+	 * @param window
+	 *            largest number of instances in flight at once
+	 */
+	public ExperimentPipeline(Supplier<Search> engines, int workers, int window) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+		if (window < workers) {
+			throw new IllegalArgumentException("The window must be at least the number of workers");
+		}
+
+		this.engines = engines;
+		this.workers = workers;
+		this.window = window;
+	}
+
+	/**
+	 * Solve every instance from a source and write a record for each.
+	 *
+	 * @param source
+	 *            source of instances
+	 * @param sink
+	 *            where to write the records
+	 * @return number of instances solved
+	 * @throws IOException
+	 *             if an instance cannot be read or a record written
+	 */
+	public long run(InstanceSource source, CsvResultWriter sink) throws IOException {
+		ExecutorService pool;
+		ThreadLocal<Worker> worker;
+		ArrayDeque<Future<Record>> in_flight;
+		SlidingBlockState instance;
+		long submitted;
+		long written;
+
+		pool = Executors.newFixedThreadPool(workers);
+		worker = ThreadLocal.withInitial(() -> new Worker(engines.get()));
+		in_flight = new ArrayDeque<Future<Record>>(window);
+		submitted = 0;
+		written = 0;
+
+		try {
+			while ((instance = source.next()) != null) {
+				if (in_flight.size() == window) {
+					write(sink, written++, in_flight.removeFirst());
+				}
+
+				final SlidingBlockProblem problem = new SlidingBlockProblem(instance);
+				in_flight.addLast(pool.submit(new Callable<Record>() {
+					@Override
+					public Record call() {
+						Worker current = worker.get();
+						List<Action> solution = current.engine.search(problem);
+
+						return new Record(solution, current.metrics);
+					}
+				}));
+				submitted++;
+			}
+
+			while (!in_flight.isEmpty()) {
+				write(sink, written++, in_flight.removeFirst());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		return submitted;
+	}
+
+	/**
+	 * Wait for an instance to be solved and write its record.
+	 *
+	 * @param sink
+	 *            where to write the record
+	 * @param instance
+	 *            number of the instance
+	 * @param future
+	 *            the pending outcome
+	 * @throws IOException
+	 *             if the record cannot be written
+	 */
+	private static void write(CsvResultWriter sink, long instance, Future<Record> future) throws IOException {
+		Record record;
+
+		try {
+			record = future.get();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while solving", exception);
+		} catch (ExecutionException exception) {
+			throw new IllegalStateException("Search failed on instance " + instance, exception.getCause());
+		}
+
+		sink.write(instance, record.length, record.generated, record.expanded, record.time);
+	}
+
+	/**
+	 * A program to run a stream of instances through A* with the Manhattan
+	 * distance.
+	 *
+	 * The arguments are "file &lt;instances&gt; &lt;output&gt;", "corpus
+	 * &lt;corpus&gt; &lt;output&gt;" or "random &lt;count&gt; &lt;size&gt;
+	 * &lt;moves&gt; &lt;seed&gt; &lt;output&gt;". The seed makes the random
+	 * instances the same in every run.
+	 *
+	 * @param args
+	 *            command line arguments
+	 * @throws IOException
+	 *             if the instances cannot be read or the records written
+	 */
+	public static void main(String[] args) throws IOException {
+		InstanceSource source;
+		File output;
+		long count;
+
+		if (args.length == 3 && args[0].equals("file")) {
+			source = new InstanceReader(new File(args[1]));
+			output = new File(args[2]);
+		} else if (args.length == 3 && args[0].equals("corpus")) {
+			source = new CorpusReader(new File(args[1]));
+			output = new File(args[2]);
+		} else if (args.length == 6 && args[0].equals("random")) {
+			source = new RandomInstances(Integer.parseInt(args[1]), BoardGeometry.of(Integer.parseInt(args[2])),
+					Integer.parseInt(args[3]), Long.parseLong(args[4]));
+			output = new File(args[5]);
+		} else {
+			System.err.println("Usage: ExperimentPipeline file <instances> <output>");
+			System.err.println("       ExperimentPipeline corpus <corpus> <output>");
+			System.err.println("       ExperimentPipeline random <count> <size> <moves> <seed> <output>");
+			return;
+		}
+
+		try (InstanceSource instances = source; CsvResultWriter sink = new CsvResultWriter(output)) {
+			count = new ExperimentPipeline(() -> new AStar(new ManhattanDistance())).run(instances, sink);
+		}
+
+		System.out.println(count + " instances written to " + output);
+	}
+}
@@ -0,0 +1,166 @@
+package edu.smcm.ai.experiments;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.smcm.ai.sliding_block.BoardGeometry;
+import edu.smcm.ai.sliding_block.InstanceGenerator;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * Generate a binary corpus of instances from a seed.
+ *
+ * Instances are made in batches on several threads, each batch with its own
+ * generator split in order from one seeded generator, and written in order.
+ * The corpus is therefore the same for the same seed however many threads
+ * make it.
+ */
+public class GenerateCorpus {
+
+	/**
+	 * The number of instances made by one task.
+	 */
+	private static final int batch_size = 256;
+
+	/**
+	 * The kinds of instance that can be made.
+	 */
+	public static enum Kind {
+		Uniform, Walk, Exact;
+	}
+
+	/**
+	 * Make instances and write them to a corpus.
+	 *
+	 * @param writer
+	 *            the corpus
+	 * @param geometry
+	 *            shape of the boards
+	 * @param kind
+	 *            the kind of instance
+	 * @param depth
+	 *            length of each walk, or of each optimal solution, which is
+	 *            ignored for uniform instances
+	 * @param count
+	 *            number of instances
+	 * @param seed
+	 *            seed of the generator
+	 * @param workers
+	 *            number of threads
+	 * @throws IOException
+	 *             if the instances cannot be written
+	 */
+	public static void generate(CorpusWriter writer, BoardGeometry geometry, Kind kind, int depth, long count,
+			long seed, int workers) throws IOException {
+		InstanceGenerator root;
+		ExecutorService pool;
+		ArrayDeque<Future<SlidingBlockState[]>> in_flight;
+		long submitted;
+
+		root = new InstanceGenerator(seed);
+		pool = Executors.newFixedThreadPool(workers);
+		in_flight = new ArrayDeque<Future<SlidingBlockState[]>>();
+		submitted = 0;
+
+		try {
+			while (submitted < count || !in_flight.isEmpty()) {
+				while (submitted < count && in_flight.size() < 4 * workers) {
+					final InstanceGenerator generator = root.split();
+					final int size = (int) Math.min(batch_size, count - submitted);
+					in_flight.addLast(pool.submit(() -> batch(generator, geometry, kind, depth, size)));
+					submitted += size;
+				}
+
+				for (SlidingBlockState instance : in_flight.removeFirst().get()) {
+					writer.write(instance);
+				}
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while generating", exception);
+		} catch (ExecutionException exception) {
+			throw new IllegalStateException("Generation failed", exception.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Make a batch of instances.
+	 *
+	 * @param generator
+	 *            generator for this batch alone
+	 * @param geometry
+	 *            shape of the boards
+	 * @param kind
+	 *            the kind of instance
+	 * @param depth
+	 *            length of each walk, or of each optimal solution
+	 * @param size
+	 *            number of instances
+	 * @return the instances
+	 */
+	private static SlidingBlockState[] batch(InstanceGenerator generator, BoardGeometry geometry, Kind kind,
+			int depth, int size) {
+		SlidingBlockState[] result;
+
+		result = new SlidingBlockState[size];
+		for (int index = 0; index < size; index++) {
+			switch (kind) {
+			case Uniform:
+				result[index] = generator.uniform(geometry);
+				break;
+			case Walk:
+				result[index] = generator.walk(geometry, depth);
+				break;
+			case Exact:
+				result[index] = generator.exact(geometry, depth);
+				break;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * A program to generate a corpus.
+	 *
+	 * The arguments are the kind of instance (uniform, walk or exact), the
+	 * rows and columns of the board, the depth, the number of instances, the
+	 * seed and the file to write.
+	 *
+	 * @param args
+	 *            command line arguments
+	 * @throws IOException
+	 *             if the corpus cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		BoardGeometry geometry;
+		Kind kind;
+		File output;
+		long start;
+
+		if (args.length != 7) {
+			System.err.println("Usage: GenerateCorpus uniform|walk|exact <rows> <columns> <depth> <count> <seed> "
+					+ "<output>");
+			return;
+		}
+
+		kind = Kind.valueOf(args[0].substring(0, 1).toUpperCase() + args[0].substring(1).toLowerCase());
+		geometry = BoardGeometry.of(Integer.parseInt(args[1]), Integer.parseInt(args[2]));
+		output = new File(args[6]);
+
+		start = System.nanoTime();
+		try (CorpusWriter writer = new CorpusWriter(output, geometry)) {
+			generate(writer, geometry, kind, Integer.parseInt(args[3]), Long.parseLong(args[4]),
+					Long.parseLong(args[5]), Runtime.getRuntime().availableProcessors());
+			System.out.println(writer.count() + " " + geometry + " instances written to " + output + " in "
+					+ (System.nanoTime() - start) / 1000000 + " ms");
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package edu.smcm.ai.experiments;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * A source of instances read from a text file.
+ *
+ * Each non-blank line that does not start with '#' holds one instance: the
+ * tiles row by row separated by white space, 0 being the blank. The size of
+ * the puzzle is the square root of the number of tiles.
+ */
+public class InstanceReader extends InstanceSource {
+
+	/**
+	 * The file being read.
+	 */
+	private BufferedReader input;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param file
+	 *            file of instances
+	 * @throws IOException
+	 *             if the file cannot be opened
+	 */
+	public InstanceReader(File file) throws IOException {
+		this.input = new BufferedReader(new FileReader(file));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.experiments.InstanceSource#next()
+	 */
+	@Override
+	public SlidingBlockState next() throws IOException {
+		String line;
+		String[] fields;
+		int[] tiles;
+		int size;
+
+		do {
+			line = input.readLine();
+			if (null == line) {
+				return null;
+			}
+			line = line.trim();
+		} while (line.isEmpty() || line.startsWith("#"));
+
+		fields = line.split("\\s+");
+		size = (int) Math.round(Math.sqrt(fields.length));
+		if (size * size != fields.length) {
+			throw new IOException("Not a square number of tiles: " + line);
+		}
+
+		tiles = new int[fields.length];
+		try {
+			for (int index = 0; index < fields.length; index++) {
+				tiles[index] = Integer.parseInt(fields[index]);
+			}
+			return new SlidingBlockState(size, tiles);
+		} catch (IllegalArgumentException exception) {
+			throw new IOException("Bad instance: " + line, exception);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.experiments.InstanceSource#close()
+	 */
+	@Override
+	public void close() throws IOException {
+		input.close();
+	}
+}
@@ -0,0 +1,34 @@
+package edu.smcm.ai.experiments;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * A source of Sliding Block Puzzle instances for experiments.
+ *
+ * Instances are produced one at a time so that arbitrarily large sweeps can
+ * be run in bounded memory.
+ */
+abstract public class InstanceSource implements Closeable {
+
+	/**
+	 * Obtain the next instance.
+	 *
+	 * @return the next initial state, or null if there are no more
+	 * @throws IOException
+	 *             if the instance cannot be read
+	 */
+	abstract public SlidingBlockState next() throws IOException;
+
+	/**
+	 * Release any resources held by the source. By default there are none.
+	 *
+	 * @throws IOException
+	 *             if the resources cannot be released
+	 */
+	@Override
+	public void close() throws IOException {
+	}
+}
@@ -0,0 +1,86 @@
+package edu.smcm.ai.experiments;
+
+import edu.smcm.ai.sliding_block.BoardGeometry;
+import edu.smcm.ai.sliding_block.InstanceGenerator;
+import edu.smcm.ai.sliding_block.SlidingBlockState;
+
+/**
+ * A source of instances made by applying random moves to the goal state.
+ *
+ * The walks never undo their previous move. Given a seed, the same instances
+ * are made in every run; otherwise the generator of the current thread is
+ * used.
+ */
+public class RandomInstances extends InstanceSource {
+
+	/**
+	 * Number of instances still to be made.
+	 */
+	private int remaining;
+
+	/**
+	 * The shape of the puzzles.
+	 */
+	private BoardGeometry geometry;
+
+	/**
+	 * Number of random moves made from the goal.
+	 */
+	private int moves;
+
+	/**
+	 * The seeded generator, or null to use that of the current thread.
+	 */
+	private InstanceGenerator generator;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param count
+	 *            number of instances to make
+	 * @param size
+	 *            length of the sides of the puzzles
+	 * @param moves
+	 *            number of random moves to make from the goal
+	 */
+	public RandomInstances(int count, int size, int moves) {
+		this.remaining = count;
+		this.geometry = BoardGeometry.of(size);
+		this.moves = moves;
+	}
+
+	/**
+	 * A constructor for instances that can be made again.
+	 *
+	 * @param count
+	 *            number of instances to make
+	 * @param geometry
+	 *            shape of the puzzles
+	 * @param moves
+	 *            number of random moves to make from the goal
+	 * @param seed
+	 *            seed of the generator
+	 */
+	public RandomInstances(int count, BoardGeometry geometry, int moves, long seed) {
+		this.remaining = count;
+		this.geometry = geometry;
+		this.moves = moves;
+		this.generator = new InstanceGenerator(seed);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.experiments.InstanceSource#next()
+	 */
+	@Override
+	public SlidingBlockState next() {
+		if (remaining == 0) {
+			return null;
+		}
+
+		remaining--;
+
+		return (null == generator) ? InstanceGenerator.local().walk(geometry, moves) : generator.walk(geometry, moves);
+	}
+}
@@ -6,7 +6,8 @@ import java.util.List;
 /**
  * A class that represents a list of lists of integers. This is useful for
  * storing the results of experiments. Some useful statistical methods are
- * provided for each list of numbers.
+ * provided for each list of numbers. All methods are synchronized so that
+ * results may be added from several threads.
  * 
  
  */
@@ -39,7 +40,7 @@ public class Results {
 	 * 
 	 * @return number of result sets.
 	 */
-	public int size() {
+	public synchronized int size() {
 		return results.size();
 	}
 
@@ -51,7 +52,7 @@ public class Results {
 	 * @param value
 	 *            result to insert
 	 */
-	public void add(int index, int value) {
+	public synchronized void add(int index, int value) {
 		results.get(index).add(value);
 	}
 
@@ -62,7 +63,7 @@ public class Results {
 	 *            result set to get the size of
 	 * @return number of results in set
 	 */
-	public int size(int index) {
+	public synchronized int size(int index) {
 		return results.get(index).size();
 	}
 
@@ -73,7 +74,7 @@ public class Results {
 	 *            result set to mean
 	 * @return mean of result set
 	 */
-	public double mean(int index) {
+	public synchronized double mean(int index) {
 		int sum;
 
 		sum = 0;
@@ -90,7 +91,7 @@ public class Results {
 	 * Remove all results from all results sets. This allows the results data
 	 * structure to be reused.
 	 */
-	public void clear() {
+	public synchronized void clear() {
 		for (int index = 0; index < results.size(); index++) {
 			results.get(index).clear();
 		}
@@ -1,6 +1,8 @@
 package edu.smcm.ai.experiments;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import edu.smcm.ai.search.AStar;
 import edu.smcm.ai.search.Action;
@@ -44,28 +46,36 @@ public class SlidingPuzzleHeuristics {
 	/**
 	 * Run a sequence of searches.
 	 * 
-	 * @param search_engine
-	 *            search to use, including heuristic
+	 * The problems are solved in parallel, one search engine per worker
+	 * thread, but are reported in order.
+	 * 
+	 * @param search_engines
+	 *            supplier of searches to use, including heuristic
 	 * @param results
 	 *            resulting data
 	 */
-	public static void run(Search search_engine, Results results) {
-		Problem problem; // The problem to be solved
-		List<Action> solution; // The actions necessary to solve the problem
+	public static void run(Supplier<Search> search_engines, Results results) {
+		List<Problem> problems; // The problems to be solved
+		List<BatchSolver.Outcome> outcomes; // The solutions, in order
+		BatchSolver.Outcome outcome;
+
+		problems = new ArrayList<Problem>(number_of_trials);
+		for (int count = 0; count < number_of_trials; count++) {
+			problems.add(new SlidingBlockProblem(problem_size, number_of_random_moves));
+		}
+
+		outcomes = new BatchSolver(search_engines).solve(problems, results);
 
 		for (int count = 0; count < number_of_trials; count++) {
-			problem = new SlidingBlockProblem(problem_size, number_of_random_moves);
+			outcome = outcomes.get(count);
 			System.out.println("Problem: " + count);
 			System.out.println("Initial State:");
-			System.out.println(problem.initialState());
-			solution = search_engine.search(problem);
+			System.out.println(outcome.problem().initialState());
 			System.out.println("Solution:");
-			for (Action action : solution) {
+			for (Action action : outcome.solution()) {
 				System.out.println(action);
 			}
 			System.out.println("----------------");
-
-			results.add(solution.size(), search_engine.nodesGenerated());
 		}
 	}
 
@@ -76,7 +86,6 @@ public class SlidingPuzzleHeuristics {
 	 *            command line arguments (unused)
 	 */
 	public static void main(String[] args) {
-		Search search_engine; // The engine to do searches
 		Results manhattan_distance_results;
 		Results out_of_place_results;
 
@@ -84,17 +93,15 @@ public class SlidingPuzzleHeuristics {
 		System.out.println("Manhattan Distance");
 		System.out.println("=======================");
 
-		search_engine = new AStar(new ManhattanDistance());
 		manhattan_distance_results = new Results(number_of_random_moves + 1);
-		run(search_engine, manhattan_distance_results);
+		run(() -> new AStar(new ManhattanDistance()), manhattan_distance_results);
 
 		System.out.println("=======================");
 		System.out.println("Out Of Place");
 		System.out.println("=======================");
 
-		search_engine = new AStar(new OutOfPlace());
 		out_of_place_results = new Results(number_of_random_moves + 1);
-		run(search_engine, out_of_place_results);
+		run(() -> new AStar(new OutOfPlace()), out_of_place_results);
 
 		// Print a table of all of the results
 		for (int index = 0; index < manhattan_distance_results.size(); index++) {
@@ -0,0 +1,48 @@
+package edu.smcm.ai.experiments;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import edu.smcm.ai.sliding_block.ExternalBreadthFirstSearch;
+import edu.smcm.ai.sliding_block.SlidingBlockProblem;
+
+/**
+ * Find how many states of the Sliding Block Puzzle there are at each distance
+ * from the goal, using an external-memory breadth-first search.
+ */
+public class StateSpaceDistribution {
+
+	/**
+	 * A program to print the distribution of distances.
+	 *
+	 * The arguments are the size of the puzzle, a directory for the layer
+	 * files and, optionally, the deepest layer to make. Running it again with
+	 * the same directory resumes from the last complete layer.
+	 *
+	 * @param args
+	 *            command line arguments
+	 * @throws IOException
+	 *             if the layer files cannot be read or written
+	 */
+	public static void main(String[] args) throws IOException {
+		ExternalBreadthFirstSearch search;
+		List<Long> counts;
+		long total;
+
+		if (args.length < 2) {
+			System.err.println("Usage: StateSpaceDistribution <size> <directory> [<max depth>]");
+			return;
+		}
+
+		search = new ExternalBreadthFirstSearch(new SlidingBlockProblem(Integer.parseInt(args[0])),
+				new File(args[1]));
+		counts = search.run((args.length > 2) ? Integer.parseInt(args[2]) : Integer.MAX_VALUE);
+
+		total = 0;
+		for (int depth = 0; depth < counts.size(); depth++) {
+			total += counts.get(depth);
+			System.out.printf("%3d : %15d %15d\n", depth, counts.get(depth), total);
+		}
+	}
+}
@@ -1,11 +1,13 @@
 package edu.smcm.ai.search;
 
-import java.util.PriorityQueue;
-
 /**
  * An A* search is a Uniform Cost Search where the frontier queue is replaced by
  * a frontier queue sorted with a heuristic. See Russell and Norvig, Artificial
  * Intelligence: A Modern Approach, Third Edition, p. 93.
+ *
+ * Given a weight w &gt; 1 this is weighted A*, which orders the frontier by
+ * g + w * h. It usually expands far fewer Nodes, and with an admissible
+ * heuristic the solution costs at most w times the optimal.
  */
 public class AStar extends UniformCostSearch {
 
@@ -16,7 +18,47 @@ public class AStar extends UniformCostSearch {
 	 *            heuristic for comparison of states in frontier
 	 */
 	public AStar(Heuristic h) {
+		this(h, HeuristicComparator.TieBreak.HigherCost);
+	}
+
+	/**
+	 * Constructor for the A* search with a choice of tie-break.
+	 * 
+	 * @param h
+	 *            heuristic for comparison of states in frontier
+	 * @param tie_break
+	 *            how to order Nodes with equal evaluations
+	 */
+	public AStar(Heuristic h, HeuristicComparator.TieBreak tie_break) {
+		this(h, 1.0, tie_break);
+	}
+
+	/**
+	 * Constructor for weighted A*.
+	 * 
+	 * @param h
+	 *            heuristic for comparison of states in frontier
+	 * @param weight
+	 *            weight of the heuristic, at least 1
+	 */
+	public AStar(Heuristic h, double weight) {
+		this(h, weight, HeuristicComparator.TieBreak.HigherCost);
+	}
+
+	/**
+	 * Constructor for weighted A* with a choice of tie-break.
+	 * 
+	 * @param h
+	 *            heuristic for comparison of states in frontier
+	 * @param weight
+	 *            weight of the heuristic, at least 1
+	 * @param tie_break
+	 *            how to order Nodes with equal evaluations
+	 */
+	public AStar(Heuristic h, double weight, HeuristicComparator.TieBreak tie_break) {
 		super();
-		frontierQueue(new PriorityQueue<Node>(new HeuristicComparator(h)));
+		heuristic(h);
+		frontierQueue(new FrontierQueue(new HeuristicComparator(weight, tie_break)));
+		denseTables(false);
 	}
 }
@@ -0,0 +1,398 @@
+package edu.smcm.ai.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of Anytime Repairing A* (ARA*). See Likhachev, Gordon and
+ * Thrun, ARA*: Anytime A* with Provable Bounds on Sub-Optimality, Advances in
+ * Neural Information Processing Systems 16, 2003.
+ *
+ * The search runs weighted A* (see HeuristicComparator) with a large weight to
+ * find a first solution quickly, then lowers the weight step by step and
+ * searches again until the weight reaches 1 or a time or node budget runs out.
+ * Work is not thrown away between searches: each state is expanded at most
+ * once per search, and a state reached more cheaply after it was expanded is
+ * set aside as inconsistent and re-opened when the next search starts, with
+ * the frontier re-ordered by the new weight.
+ *
+ * Every solution is at most a known factor more costly than the optimal: the
+ * weight of the last search that finished, or the cost of the solution
+ * divided by the smallest g + h on the frontier if that is less. A search cut
+ * short by the budget proves nothing about its weight, so a solution found by
+ * it is bounded by the frontier alone. Each better solution, or better bound, is
+ * reported to the listener (SearchListener.improved()) as soon as the search
+ * that found it ends, so a caller can use it before the budget runs out. The
+ * best solution found is returned.
+ *
+ * NOTE: the heuristic should be consistent for the bound to hold.
+ */
+public class AnytimeRepairingAStar extends Search {
+
+	/**
+	 * The heuristic evaluated for every Node generated.
+	 */
+	private Heuristic heuristic;
+
+	/**
+	 * The weight of the first search.
+	 */
+	private double initial_weight;
+
+	/**
+	 * The amount by which the weight is lowered after each search.
+	 */
+	private double weight_step;
+
+	/**
+	 * The time allowed for a search, in nanoseconds.
+	 */
+	private long time_limit;
+
+	/**
+	 * The number of Nodes that may be generated in a search.
+	 */
+	private long node_limit;
+
+	/**
+	 * The problem being solved.
+	 */
+	private Problem problem;
+
+	/**
+	 * The cheapest Node known for each state generated.
+	 */
+	private NodeTable best;
+
+	/**
+	 * Nodes for the states expanded in the current search.
+	 */
+	private NodeTable closed;
+
+	/**
+	 * Nodes made cheaper after their states were expanded in the current
+	 * search.
+	 */
+	private List<Node> inconsistent;
+
+	/**
+	 * The frontier of the current search.
+	 */
+	private FrontierQueue frontier;
+
+	/**
+	 * Buffer for the children of the Node being expanded.
+	 */
+	private List<Node> children;
+
+	/**
+	 * The cheapest goal Node found, or null if none.
+	 */
+	private Node incumbent;
+
+	/**
+	 * The factor by which the incumbent may exceed the optimal cost.
+	 */
+	private double suboptimality;
+
+	/**
+	 * The time by which the search must end, in nanoseconds.
+	 */
+	private long deadline;
+
+	/**
+	 * Counter for the number of nodes generated
+	 */
+	private int nodes_generated;
+
+	/**
+	 * Constructor for ARA* starting with a weight of 3, lowered by 0.5 after
+	 * each search.
+	 *
+	 * @param h
+	 *            heuristic used to order the frontier
+	 */
+	public AnytimeRepairingAStar(Heuristic h) {
+		this(h, 3.0, 0.5);
+	}
+
+	/**
+	 * Constructor for ARA*.
+	 *
+	 * @param h
+	 *            heuristic used to order the frontier
+	 * @param initial_weight
+	 *            weight of the heuristic in the first search, at least 1
+	 * @param weight_step
+	 *            amount by which the weight is lowered after each search
+	 */
+	public AnytimeRepairingAStar(Heuristic h, double initial_weight, double weight_step) {
+		if (!(initial_weight >= 1.0)) {
+			throw new IllegalArgumentException("The weight must be at least 1");
+		}
+		if (!(weight_step > 0.0)) {
+			throw new IllegalArgumentException("The weight step must be positive");
+		}
+
+		this.heuristic = h;
+		this.initial_weight = initial_weight;
+		this.weight_step = weight_step;
+		this.time_limit = Long.MAX_VALUE;
+		this.node_limit = Long.MAX_VALUE;
+		this.best = new NodeTable();
+		this.closed = new NodeTable();
+		this.inconsistent = new ArrayList<Node>();
+		this.children = new ArrayList<Node>(4);
+	}
+
+	/**
+	 * Limit the time each search may take.
+	 *
+	 * When the time runs out the best solution found so far is returned.
+	 *
+	 * @param nanoseconds
+	 *            time allowed, or Long.MAX_VALUE for no limit
+	 */
+	public void timeLimit(long nanoseconds) {
+		this.time_limit = nanoseconds;
+	}
+
+	/**
+	 * Limit the number of Nodes each search may generate.
+	 *
+	 * When the limit is reached the best solution found so far is returned.
+	 *
+	 * @param nodes
+	 *            number of Nodes allowed, or Long.MAX_VALUE for no limit
+	 */
+	public void nodeLimit(long nodes) {
+		this.node_limit = nodes;
+	}
+
+	/**
+	 * Get the number of nodes generated in this search.
+	 *
+	 * @return number of nodes generated
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#nodesGenerated()
+	 */
+	public int nodesGenerated() {
+		return nodes_generated;
+	}
+
+	/**
+	 * The factor by which the solution of the last search may exceed the
+	 * optimal cost.
+	 *
+	 * @return bound on the sub-optimality, 1 if the solution is optimal, or
+	 *         infinity if no solution was found
+	 */
+	public double suboptimality() {
+		return suboptimality;
+	}
+
+	/**
+	 * Perform ARA* until the solution is optimal or the budget runs out.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#search(edu.smcm.ai.search.Problem)
+	 */
+	public List<Action> search(Problem problem) {
+		Node root;
+		Node reported;
+		double weight;
+		double completed_weight;
+		double reported_bound;
+		boolean complete;
+		List<Action> result;
+
+		this.problem = problem;
+		this.deadline = (time_limit == Long.MAX_VALUE) ? Long.MAX_VALUE : System.nanoTime() + time_limit;
+		best.clear();
+		closed.clear();
+		inconsistent.clear();
+		incumbent = null;
+		suboptimality = Double.POSITIVE_INFINITY;
+
+		root = problem.initialNode(heuristic);
+		nodes_generated = 1;
+		best.put(root);
+		if (problem.isGoalState(root.state())) {
+			incumbent = root;
+		}
+
+		weight = initial_weight;
+		frontier = new FrontierQueue(new HeuristicComparator(weight));
+		frontier.add(root);
+
+		if (listener() != null) {
+			listener().started(problem);
+			listener().generated(root);
+		}
+
+		reported = null;
+		reported_bound = Double.POSITIVE_INFINITY;
+		completed_weight = Double.POSITIVE_INFINITY;
+		do {
+			complete = improve();
+
+			// The weight only bounds the incumbent once its pass has finished
+			if (complete) {
+				completed_weight = weight;
+			}
+			suboptimality = restart(completed_weight);
+			if (incumbent != null && (incumbent != reported || suboptimality < reported_bound)) {
+				reported = incumbent;
+				reported_bound = suboptimality;
+				if (listener() != null) {
+					listener().improved(incumbent.solution(), incumbent.cost(), suboptimality);
+				}
+			}
+
+			if (!complete || null == incumbent || suboptimality <= 1.0) {
+				break;
+			}
+
+			weight = Math.max(1.0, Math.min(weight, suboptimality) - weight_step);
+			frontier = rebuild(weight);
+		} while (true);
+
+		result = (null == incumbent) ? null : incumbent.solution();
+		frontier = null;
+		inconsistent.clear();
+		this.problem = null;
+
+		return finished(result);
+	}
+
+	/**
+	 * Expand Nodes in order of weighted evaluation until none could lead to a
+	 * cheaper goal than the incumbent.
+	 *
+	 * @return true if the search ended, false if the budget ran out
+	 */
+	private boolean improve() {
+		HeuristicComparator comparator;
+		Node node;
+		Node child;
+		Node existing;
+
+		comparator = (HeuristicComparator) frontier.comparator();
+
+		while ((node = frontier.peek()) != null
+				&& (null == incumbent || comparator.evaluation(node) < incumbent.cost())) {
+
+			if (nodes_generated >= node_limit || (deadline != Long.MAX_VALUE && System.nanoTime() >= deadline)) {
+				return false;
+			}
+
+			frontier.remove();
+			closed.put(node);
+
+			if (listener() != null) {
+				listener().expanded(node, frontier.size(), closed.size());
+			}
+
+			problem.expand(node, heuristic, children);
+			for (int index = 0; index < children.size(); index++) {
+				child = children.get(index);
+				nodes_generated++;
+
+				if (listener() != null) {
+					listener().generated(child);
+				}
+
+				existing = best.get(child.state());
+				if (existing != null && existing.cost() <= child.cost()) {
+					if (listener() != null) {
+						listener().duplicate(child);
+					}
+					continue;
+				}
+
+				best.put(child);
+				if (problem.isGoalState(child.state()) && (null == incumbent || child.cost() < incumbent.cost())) {
+					incumbent = child;
+				}
+
+				if (closed.get(child.state()) != null) {
+					// Expanded already in this search, so it waits for the next
+					inconsistent.add(child);
+				} else {
+					frontier.add(child);
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gather the frontier and the inconsistent Nodes ready for the next
+	 * search, and work out how far the incumbent may be from optimal.
+	 *
+	 * The gathered Nodes are left in the inconsistent list.
+	 *
+	 * @param weight
+	 *            weight of the last search that finished, or infinity if none
+	 *            has
+	 * @return bound on the sub-optimality of the incumbent, or infinity if
+	 *         there is none
+	 */
+	private double restart(double weight) {
+		List<Node> open;
+		Node node;
+		double lower;
+
+		open = new ArrayList<Node>(frontier.size() + inconsistent.size());
+		while ((node = frontier.remove()) != null) {
+			open.add(node);
+		}
+		for (Node stale : inconsistent) {
+			if (best.get(stale.state()) == stale) {
+				open.add(stale);
+			}
+		}
+		inconsistent = open;
+
+		if (null == incumbent) {
+			return Double.POSITIVE_INFINITY;
+		}
+
+		lower = incumbent.cost();
+		for (int index = 0; index < open.size(); index++) {
+			lower = Math.min(lower, open.get(index).evaluation());
+		}
+
+		if (lower <= 0.0) {
+			return (incumbent.cost() <= 0.0) ? 1.0 : weight;
+		}
+
+		return Math.min(weight, incumbent.cost() / lower);
+	}
+
+	/**
+	 * Start a new search with a new weight from the gathered Nodes.
+	 *
+	 * @param weight
+	 *            weight of the new search
+	 * @return the new frontier
+	 */
+	private FrontierQueue rebuild(double weight) {
+		FrontierQueue result;
+
+		result = new FrontierQueue(new HeuristicComparator(weight));
+		for (int index = 0; index < inconsistent.size(); index++) {
+			result.add(inconsistent.get(index));
+		}
+		inconsistent.clear();
+		closed.clear();
+
+		return result;
+	}
+}
@@ -0,0 +1,161 @@
+package edu.smcm.ai.search;
+
+import java.util.List;
+
+/**
+ * Implementation of A* on a NodeArena. See Russell and Norvig, Artificial
+ * Intelligence: A Modern Approach, Third Edition, p. 93.
+ *
+ * The search is the same as AStar, re-opening states reached more cheaply, but
+ * no Node objects are made: nodes are int handles into parallel arrays, and
+ * only the keys of states are kept. A state is rebuilt from its key
+ * (Problem.decode()) when its node is expanded. When the problem is
+ * reversible the children are made by applying and undoing each action on
+ * that one state, so an expansion allocates a single state.
+ *
+ * NOTE: the states must encode to a long (State.hasKey()). A listener is told
+ * about every event through one Node that is overwritten each time.
+ */
+public class ArenaAStar extends Search {
+
+	/**
+	 * The heuristic evaluated for every node generated.
+	 */
+	private Heuristic heuristic;
+
+	/**
+	 * The store of nodes, reused between searches.
+	 */
+	private NodeArena arena;
+
+	/**
+	 * Counter for the number of nodes generated
+	 */
+	private int nodes_generated;
+
+	/**
+	 * The Node through which events are reported to the listener, overwritten
+	 * for each one so that reporting allocates nothing.
+	 */
+	private Node report;
+
+	/**
+	 * Constructor for arena-based A*.
+	 *
+	 * @param h
+	 *            heuristic used to order the frontier
+	 */
+	public ArenaAStar(Heuristic h) {
+		this.heuristic = h;
+		this.arena = new NodeArena();
+		this.report = new Node(null);
+	}
+
+	/**
+	 * Get the number of nodes generated in this search.
+	 *
+	 * @return number of nodes generated
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#nodesGenerated()
+	 */
+	public int nodesGenerated() {
+		return nodes_generated;
+	}
+
+	/**
+	 * Perform an A* search on a NodeArena.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#search(edu.smcm.ai.search.Problem)
+	 */
+	public List<Action> search(Problem problem) {
+		SearchListener listener = listener();
+		State initial;
+		List<Action> actions;
+		Action action;
+		State state;
+		State child;
+		int node;
+		int existing;
+		long key;
+		double cost;
+		double h;
+
+		initial = problem.initialState();
+		if (!initial.hasKey()) {
+			throw new UnsupportedOperationException("Arena search needs states with keys");
+		}
+
+		arena.clear();
+		arena.add(NodeArena.none, null, initial.key(), 0.0, heuristic.cost(initial));
+		nodes_generated = 1;
+
+		if (listener != null) {
+			listener.started(problem);
+			listener.generated(report.reuse(null, initial, 0.0, arena.heuristic(0)));
+		}
+
+		while ((node = arena.remove()) != NodeArena.none) {
+
+			state = problem.decode(arena.key(node));
+
+			if (problem.isGoalState(state)) {
+				return finished(arena.solution(node));
+			}
+
+			if (listener != null) {
+				listener.expanded(report.reuse(arena.action(node), state, arena.cost(node), arena.heuristic(node)),
+						arena.openSize(), arena.size() - arena.openSize());
+			}
+
+			actions = problem.actions(state);
+			for (int index = 0; index < actions.size(); index++) {
+				action = actions.get(index);
+
+				if (problem.reversible()) {
+					problem.apply(state, action);
+					child = state;
+				} else {
+					child = problem.result(state, action);
+				}
+
+				nodes_generated++;
+				key = child.key();
+				cost = arena.cost(node) + problem.cost(state, action, child);
+				existing = arena.find(key);
+
+				if (existing == NodeArena.none) {
+					h = heuristic.cost(state, arena.heuristic(node), action, child);
+				} else {
+					h = arena.heuristic(existing);
+				}
+
+				if (listener != null) {
+					listener.generated(report.reuse(action, child, cost, h));
+				}
+
+				if (existing == NodeArena.none) {
+					arena.add(node, action, key, cost, h);
+				} else if (cost < arena.cost(existing)) {
+					if (listener != null && !arena.isOpen(existing)) {
+						listener.reopened(report.reuse(action, child, cost, h));
+					}
+					arena.improve(existing, node, action, cost);
+				} else if (listener != null) {
+					listener.duplicate(report.reuse(action, child, cost, h));
+				}
+
+				if (problem.reversible()) {
+					problem.undo(state, action);
+				}
+			}
+		}
+
+		return finished(null);
+	}
+}
@@ -0,0 +1,267 @@
+package edu.smcm.ai.search;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Implementation of bidirectional heuristic search meeting in the middle (MM).
+ * See Holte, Felner, Sharon and Sturtevant, Bidirectional Search That Is
+ * Guaranteed to Meet in the Middle, AAAI 2016.
+ *
+ * Two searches are made, one forwards from the initial state and one
+ * backwards from the goal state, each with its own frontier and explored
+ * table. A Node is prioritised by max(f, 2g), so neither search goes past the
+ * middle of an optimal path. The direction with the smaller priority is
+ * expanded next. Whenever a generated state is known to the other search, the
+ * two half-paths give a solution; the search stops as soon as the best such
+ * solution costs no more than the smallest priority on either frontier.
+ *
+ * The problem must have a single goal state (Problem.goalState()) and every
+ * action must have an inverse (Problem.inverse()). The heuristic is used
+ * front-to-end: forwards it estimates the cost to the goal and backwards the
+ * cost to the initial state, both through Heuristic.cost(State, State). A
+ * heuristic that cannot estimate to an arbitrary state
+ * (Heuristic.estimatesToTarget()) is refused.
+ */
+public class BidirectionalAStar extends Search {
+
+	/**
+	 * Index of the forward search.
+	 */
+	private static final int forward = 0;
+
+	/**
+	 * Index of the backward search.
+	 */
+	private static final int backward = 1;
+
+	/**
+	 * Orders Nodes by the MM priority max(f, 2g).
+	 */
+	private static class MeetInTheMiddleComparator implements Comparator<Node> {
+		@Override
+		public int compare(Node left, Node right) {
+			int result;
+
+			result = Double.compare(priority(left), priority(right));
+			if (result == 0) {
+				result = Double.compare(left.cost(), right.cost());
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * The heuristic used in both directions.
+	 */
+	private Heuristic heuristic;
+
+	/**
+	 * The frontiers of the forward and backward searches.
+	 */
+	private FrontierQueue[] frontier;
+
+	/**
+	 * The explored Nodes of the forward and backward searches.
+	 */
+	private NodeTable[] explored;
+
+	/**
+	 * Counter for the number of nodes generated
+	 */
+	private int nodes_generated;
+
+	/**
+	 * Constructor for bidirectional A*.
+	 *
+	 * @param h
+	 *            heuristic estimating the cost between two states
+	 */
+	public BidirectionalAStar(Heuristic h) {
+		if (!h.estimatesToTarget()) {
+			throw new IllegalArgumentException("The heuristic cannot estimate the cost to an arbitrary state");
+		}
+
+		this.heuristic = h;
+		this.frontier = new FrontierQueue[] { new FrontierQueue(new MeetInTheMiddleComparator()),
+				new FrontierQueue(new MeetInTheMiddleComparator()) };
+		this.explored = new NodeTable[] { new NodeTable(), new NodeTable() };
+	}
+
+	/**
+	 * Get the number of nodes generated in this search.
+	 *
+	 * @return number of nodes generated
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#nodesGenerated()
+	 */
+	public int nodesGenerated() {
+		return nodes_generated;
+	}
+
+	/**
+	 * Perform a bidirectional search.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#search(edu.smcm.ai.search.Problem)
+	 */
+	public List<Action> search(Problem problem) {
+		SearchListener listener = listener();
+		State[] target;
+		State end;
+		Node node;
+		Node child;
+		Node existing;
+		Node other;
+		Node[] meeting;
+		double best;
+		double bound;
+		int direction;
+
+		target = new State[] { problem.goalState(), problem.initialState() };
+		if (null == target[forward]) {
+			throw new UnsupportedOperationException("Bidirectional search needs a single goal state");
+		}
+
+		for (direction = forward; direction <= backward; direction++) {
+			frontier[direction].clear();
+			explored[direction].clear();
+		}
+
+		frontier[forward].add(new Node(null, null, target[backward], 0.0, heuristic.cost(target[backward], target[forward])));
+		frontier[backward].add(new Node(null, null, target[forward], 0.0, heuristic.cost(target[forward], target[backward])));
+		nodes_generated = 2;
+
+		if (listener != null) {
+			listener.started(problem);
+			listener.generated(frontier[forward].peek());
+			listener.generated(frontier[backward].peek());
+		}
+
+		if (problem.isGoalState(target[backward])) {
+			return finished(frontier[forward].peek().solution());
+		}
+
+		best = Double.POSITIVE_INFINITY;
+		meeting = new Node[2];
+
+		while (!frontier[forward].isEmpty() && !frontier[backward].isEmpty()) {
+
+			bound = Math.min(priority(frontier[forward].peek()), priority(frontier[backward].peek()));
+			if (best <= bound) {
+				break;
+			}
+
+			direction = (priority(frontier[forward].peek()) <= priority(frontier[backward].peek())) ? forward : backward;
+			node = frontier[direction].remove();
+			explored[direction].put(node);
+
+			if (listener != null) {
+				listener.expanded(node, frontier[forward].size() + frontier[backward].size(),
+						explored[forward].size() + explored[backward].size());
+			}
+
+			for (Action action : problem.actions(node.state())) {
+
+				end = problem.result(node.state(), action);
+				child = new Node(node, action, end, node.cost() + problem.cost(node.state(), action, end),
+						heuristic.cost(end, target[direction]));
+				nodes_generated++;
+
+				if (listener != null) {
+					listener.generated(child);
+				}
+
+				existing = frontier[direction].get(end);
+				if (existing != null) {
+					if (existing.cost() <= child.cost()) {
+						if (listener != null) {
+							listener.duplicate(child);
+						}
+						continue;
+					}
+					frontier[direction].decrease(child);
+				} else {
+					existing = explored[direction].get(end);
+					if (existing != null) {
+						if (existing.cost() <= child.cost()) {
+							if (listener != null) {
+								listener.duplicate(child);
+							}
+							continue;
+						}
+						explored[direction].remove(end);
+						if (listener != null) {
+							listener.reopened(child);
+						}
+					}
+					frontier[direction].add(child);
+				}
+
+				other = frontier[1 - direction].get(end);
+				if (null == other) {
+					other = explored[1 - direction].get(end);
+				}
+				if (other != null && child.cost() + other.cost() < best) {
+					best = child.cost() + other.cost();
+					meeting[direction] = child;
+					meeting[1 - direction] = other;
+				}
+			}
+		}
+
+		if (best == Double.POSITIVE_INFINITY) {
+			return finished(null);
+		}
+
+		return finished(join(problem, meeting[forward], meeting[backward]));
+	}
+
+	/**
+	 * The MM priority of a Node.
+	 *
+	 * @param node
+	 *            the Node
+	 * @return max(f, 2g)
+	 */
+	private static double priority(Node node) {
+		return Math.max(node.evaluation(), 2.0 * node.cost());
+	}
+
+	/**
+	 * Join the two half-paths at the state where they meet.
+	 *
+	 * The forward half is the usual solution to the meeting Node. The
+	 * backward half is followed from the meeting Node to the goal, taking the
+	 * inverse of each action.
+	 *
+	 * @param problem
+	 *            problem being solved
+	 * @param forward_node
+	 *            meeting Node of the forward search
+	 * @param backward_node
+	 *            meeting Node of the backward search
+	 * @return actions from the initial state to the goal
+	 */
+	private static List<Action> join(Problem problem, Node forward_node, Node backward_node) {
+		List<Action> result;
+		Action inverse;
+
+		result = forward_node.solution();
+		for (Node node = backward_node; node.parent() != null; node = node.parent()) {
+			inverse = problem.inverse(node.action());
+			if (null == inverse) {
+				throw new UnsupportedOperationException("Bidirectional search needs inverse actions");
+			}
+			result.add(inverse);
+		}
+
+		return result;
+	}
+}
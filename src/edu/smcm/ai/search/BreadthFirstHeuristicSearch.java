@@ -0,0 +1,324 @@
+package edu.smcm.ai.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of breadth-first iterative-deepening A* (BFIDA*), built on
+ * breadth-first heuristic search with divide-and-conquer solution
+ * reconstruction. See Zhou and Hansen, Breadth-First Heuristic Search,
+ * Artificial Intelligence 170, 2006.
+ *
+ * Each iteration is a breadth-first search that prunes every Node whose
+ * evaluation exceeds a cut-off, which is raised as in IDA* until a goal is
+ * found. There is no explored set: only the previous, current and next
+ * layers are kept, which is enough to detect duplicates when every action can
+ * be undone. Memory is therefore proportional to the width of the search,
+ * not to the number of states. Duplicates are detected by membership alone,
+ * so for States with keys the layers are sets of keys (StateSet) and the
+ * Nodes of the previous layer are not held on to.
+ *
+ * Without an explored set there are no parent pointers back to the initial
+ * state. Instead every Node below a relay layer half way down remembers its
+ * ancestor in that layer, so the layer is kept alive only through them. When
+ * the goal is found, its relay splits the problem in two halves of known
+ * length, and each half is solved the same way, down to single actions. The
+ * halves are searched towards a given state, so the heuristic must estimate
+ * costs between arbitrary states (Heuristic.cost(State, State)), and one that
+ * cannot (Heuristic.estimatesToTarget()) is refused.
+ *
+ * NOTE: every action must cost 1 and have an inverse, as in the Sliding Block
+ * Puzzle.
+ */
+public class BreadthFirstHeuristicSearch extends Search {
+
+	/**
+	 * The heuristic used to prune the search.
+	 */
+	private Heuristic heuristic;
+
+	/**
+	 * The problem being solved.
+	 */
+	private Problem problem;
+
+	/**
+	 * The smallest evaluation that exceeded the current cut-off.
+	 */
+	private double next_bound;
+
+	/**
+	 * Counter for the number of nodes generated
+	 */
+	private int nodes_generated;
+
+	/**
+	 * The greatest number of Nodes held in the layers at once.
+	 */
+	private int peak_nodes;
+
+	/**
+	 * Constructor for breadth-first heuristic search.
+	 *
+	 * @param h
+	 *            heuristic used to prune the search, which must estimate
+	 *            costs to arbitrary states
+	 */
+	public BreadthFirstHeuristicSearch(Heuristic h) {
+		if (!h.estimatesToTarget()) {
+			throw new IllegalArgumentException("The heuristic cannot estimate the cost to an arbitrary state");
+		}
+
+		this.heuristic = h;
+	}
+
+	/**
+	 * Get the number of nodes generated in this search.
+	 *
+	 * @return number of nodes generated
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#nodesGenerated()
+	 */
+	public int nodesGenerated() {
+		return nodes_generated;
+	}
+
+	/**
+	 * Get the greatest number of Nodes held at once in the last search.
+	 *
+	 * @return largest number of Nodes in the layers
+	 */
+	public int peakNodes() {
+		return peak_nodes;
+	}
+
+	/**
+	 * Perform a breadth-first iterative-deepening A* search.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#search(edu.smcm.ai.search.Problem)
+	 */
+	public List<Action> search(Problem problem) {
+		State start;
+		Node goal;
+		double bound;
+		int length;
+		List<Action> result;
+
+		this.problem = problem;
+		nodes_generated = 1;
+		peak_nodes = 0;
+
+		if (listener() != null) {
+			listener().started(problem);
+		}
+
+		start = problem.initialState();
+		bound = heuristic.cost(start);
+		goal = null;
+
+		while (null == goal && bound != Double.POSITIVE_INFINITY) {
+			next_bound = Double.POSITIVE_INFINITY;
+			goal = layered(start, null, bound, (int) (bound / 2));
+			bound = next_bound;
+		}
+
+		if (null == goal) {
+			this.problem = null;
+			return finished(null);
+		}
+
+		length = (int) goal.cost();
+		if (null == goal.parent()) {
+			// Found above the relay layer, so search again towards it
+			result = segment(start, goal.state(), length);
+		} else {
+			result = segment(start, goal.parent().state(), (int) goal.parent().cost());
+			result.addAll(segment(goal.parent().state(), goal.state(), length - (int) goal.parent().cost()));
+		}
+
+		this.problem = null;
+
+		return finished(result);
+	}
+
+	/**
+	 * Find the actions of an optimal path of known length between two
+	 * states.
+	 *
+	 * @param start
+	 *            state at the start of the path
+	 * @param target
+	 *            state at the end of the path
+	 * @param length
+	 *            number of actions in an optimal path
+	 * @return actions from start to target
+	 */
+	private List<Action> segment(State start, State target, int length) {
+		List<Action> result;
+		Node goal;
+		State relay;
+		int middle;
+
+		result = new ArrayList<Action>();
+		if (length == 0) {
+			return result;
+		}
+
+		if (length == 1) {
+			for (Action action : problem.actions(start)) {
+				if (problem.result(start, action).equals(target)) {
+					result.add(action);
+					return result;
+				}
+			}
+			throw new IllegalStateException("No action leads to " + target);
+		}
+
+		middle = length / 2;
+		goal = layered(start, target, length, middle);
+		if (null == goal || goal.cost() != length) {
+			throw new IllegalStateException("No path of length " + length + " to " + target);
+		}
+
+		relay = goal.parent().state();
+		result.addAll(segment(start, relay, middle));
+		result.addAll(segment(relay, target, length - middle));
+
+		return result;
+	}
+
+	/**
+	 * A breadth-first search pruned by a cut-off.
+	 *
+	 * Nodes deeper than the relay layer have as their parent their ancestor
+	 * in that layer; all other Nodes have no parent.
+	 *
+	 * @param start
+	 *            state at which to start
+	 * @param target
+	 *            state to reach, or null for a goal of the problem
+	 * @param bound
+	 *            cut-off on the evaluation
+	 * @param relay_depth
+	 *            depth of the relay layer
+	 * @return Node for the target, or null if it was not reached
+	 */
+	private Node layered(State start, State target, double bound, int relay_depth) {
+		List<Node> current_layer;
+		List<Node> next_layer;
+		StateSet previous;
+		StateSet current;
+		StateSet next;
+		StateSet spare;
+		Node root;
+		Node child;
+		State end;
+		double h;
+		int depth;
+
+		root = new Node(null, null, start, 0.0, estimate(start, target));
+		if (reached(start, target)) {
+			return root;
+		}
+
+		current_layer = new ArrayList<Node>();
+		current_layer.add(root);
+		previous = new StateSet();
+		current = new StateSet();
+		next = new StateSet();
+		current.add(start);
+
+		for (depth = 0; !current_layer.isEmpty(); depth++) {
+			next_layer = new ArrayList<Node>();
+
+			for (Node node : current_layer) {
+
+				if (listener() != null) {
+					listener().expanded(node, current.size() + next.size(), previous.size());
+				}
+
+				for (Action action : problem.actions(node.state())) {
+					end = problem.result(node.state(), action);
+					nodes_generated++;
+
+					if (problem.cost(node.state(), action, end) != 1.0) {
+						throw new UnsupportedOperationException("Breadth-first heuristic search needs unit costs");
+					}
+					if (previous.contains(end) || current.contains(end) || next.contains(end)) {
+						continue;
+					}
+
+					h = estimate(end, target);
+					if (depth + 1 + h > bound) {
+						if (depth + 1 + h < next_bound) {
+							next_bound = depth + 1 + h;
+						}
+						continue;
+					}
+
+					if (depth < relay_depth) {
+						child = new Node(null, action, end, depth + 1, h);
+					} else if (depth == relay_depth) {
+						child = new Node(node, action, end, depth + 1, h);
+					} else {
+						child = new Node(node.parent(), action, end, depth + 1, h);
+					}
+
+					if (listener() != null) {
+						listener().generated(child);
+					}
+
+					if (reached(end, target)) {
+						return child;
+					}
+
+					next.add(end);
+					next_layer.add(child);
+				}
+			}
+
+			peak_nodes = Math.max(peak_nodes, previous.size() + current.size() + next.size());
+
+			spare = previous;
+			spare.clear();
+			previous = current;
+			current = next;
+			next = spare;
+			current_layer = next_layer;
+		}
+
+		return null;
+	}
+
+	/**
+	 * The estimate of the cost to the target.
+	 *
+	 * @param state
+	 *            the state
+	 * @param target
+	 *            state to reach, or null for a goal of the problem
+	 * @return the estimate
+	 */
+	private double estimate(State state, State target) {
+		return (null == target) ? heuristic.cost(state) : heuristic.cost(state, target);
+	}
+
+	/**
+	 * Determine whether a state is the one sought.
+	 *
+	 * @param state
+	 *            the state
+	 * @param target
+	 *            state to reach, or null for a goal of the problem
+	 * @return true if the state has been reached
+	 */
+	private boolean reached(State state, State target) {
+		return (null == target) ? problem.isGoalState(state) : state.equals(target);
+	}
+}
@@ -0,0 +1,27 @@
+package edu.smcm.ai.search;
+
+import java.util.Comparator;
+
+/**
+ * A comparator based on the path cost alone. It is used in keeping the
+ * frontier of a Uniform Cost Search in order.
+ */
+public class CostComparator implements Comparator<Node> {
+
+	/**
+	 * Compare method.
+	 * 
+	 * Use only the actual path cost to the Node.
+	 * 
+	 * @param left first Node to be compared
+	 * @param right second Node to be compared
+	 * @return a negative integer, zero, or a positive integer as the first argument is less than, equal to, or greater than the second
+	 */
+	/* (non-Javadoc)
+	 * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+	 */
+	@Override
+	public int compare(Node left, Node right) {
+		return Double.compare(left.cost(), right.cost());
+	}
+}
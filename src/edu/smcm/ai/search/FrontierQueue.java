@@ -0,0 +1,322 @@
+package edu.smcm.ai.search;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * An indexed binary heap of Nodes keyed by their States.
+ *
+ * This replaces the PriorityQueue&lt;Node&gt; and Map&lt;State, Node&gt; pair
+ * that made up the frontier. Every Node in the heap records its own position
+ * (its handle), so membership is O(1) through the index, and decrease-key and
+ * removal by State are O(log n) rather than the O(n) scan of
+ * PriorityQueue.contains() and PriorityQueue.remove(Object). The index is a
+ * NodeTable, so States that encode to a long are indexed without allocation.
+ */
+public class FrontierQueue {
+
+	/**
+	 * The ordering of the Nodes in the heap.
+	 */
+	private Comparator<Node> comparator;
+
+	/**
+	 * The heap itself. The smallest Node is at index 0.
+	 */
+	private Node[] heap;
+
+	/**
+	 * The number of Nodes in the heap.
+	 */
+	private int size;
+
+	/**
+	 * A table that associates States with the Nodes in the heap.
+	 */
+	private NodeTable index;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param comparator
+	 *            ordering of the Nodes, the smallest is removed first
+	 */
+	public FrontierQueue(Comparator<Node> comparator) {
+		this.comparator = comparator;
+		this.heap = new Node[64];
+		this.size = 0;
+		this.index = new NodeTable();
+	}
+
+	/**
+	 * The ordering used by this queue.
+	 *
+	 * @return comparator used to order the Nodes
+	 */
+	public Comparator<Node> comparator() {
+		return comparator;
+	}
+
+	/**
+	 * The number of Nodes in the queue.
+	 *
+	 * @return number of Nodes in the queue
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine whether the queue is empty.
+	 *
+	 * @return true if there are no Nodes in the queue
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Determine whether there is a Node for a State in the queue.
+	 *
+	 * @param state
+	 *            state to look for
+	 * @return true if a Node for the state is in the queue
+	 */
+	public boolean contains(State state) {
+		return index.get(state) != null;
+	}
+
+	/**
+	 * Find the Node for a State.
+	 *
+	 * @param state
+	 *            state to look for
+	 * @return the Node for that state, or null if there is none
+	 */
+	public Node get(State state) {
+		return index.get(state);
+	}
+
+	/**
+	 * Add a Node to the queue.
+	 *
+	 * If there is already a Node for the same State it is replaced, whether or
+	 * not the new Node is better.
+	 *
+	 * @param node
+	 *            Node to add
+	 */
+	public void add(Node node) {
+		Node previous;
+
+		previous = index.get(node.state());
+		if (previous != null) {
+			replace(previous, node);
+			return;
+		}
+
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, size * 2);
+		}
+
+		index.put(node);
+		heap[size] = node;
+		node.handle = size;
+		size++;
+		siftUp(node.handle);
+	}
+
+	/**
+	 * Replace the Node for a State with a better one.
+	 *
+	 * This is the decrease-key operation. The new Node is only used if it
+	 * compares less than the Node already in the queue.
+	 *
+	 * @param node
+	 *            the new Node
+	 * @return true if the queue was changed
+	 */
+	public boolean decrease(Node node) {
+		Node previous;
+
+		previous = index.get(node.state());
+		if (previous == null) {
+			add(node);
+			return true;
+		}
+
+		if (comparator.compare(node, previous) < 0) {
+			replace(previous, node);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Look at the smallest Node without removing it.
+	 *
+	 * @return smallest Node, or null if the queue is empty
+	 */
+	public Node peek() {
+		return (size == 0) ? null : heap[0];
+	}
+
+	/**
+	 * Remove the smallest Node.
+	 *
+	 * @return the smallest Node, or null if the queue is empty
+	 */
+	public Node remove() {
+		Node result;
+
+		if (size == 0) {
+			return null;
+		}
+
+		result = heap[0];
+		removeAt(0);
+
+		return result;
+	}
+
+	/**
+	 * Remove the Node for a State, wherever it is in the heap.
+	 *
+	 * @param state
+	 *            state whose Node should be removed
+	 * @return the Node removed, or null if there was none
+	 */
+	public Node remove(State state) {
+		Node result;
+
+		result = index.get(state);
+		if (result != null) {
+			removeAt(result.handle);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Index the queue by the index of the States of a problem, if it has one
+	 * and there are few enough States (see NodeTable).
+	 * 
+	 * The queue must be empty, and stays indexed this way until it is next
+	 * cleared.
+	 * 
+	 * @param problem
+	 *            the problem being searched
+	 */
+	void index(Problem problem) {
+		index.index(problem);
+	}
+
+	/**
+	 * Remove all Nodes from the queue.
+	 */
+	public void clear() {
+		for (int position = 0; position < size; position++) {
+			heap[position].handle = -1;
+			heap[position] = null;
+		}
+		size = 0;
+		index.clear();
+	}
+
+	/**
+	 * Put a new Node in the place of an old one and restore the heap.
+	 *
+	 * @param previous
+	 *            Node currently in the heap
+	 * @param node
+	 *            Node replacing it
+	 */
+	private void replace(Node previous, Node node) {
+		int position;
+
+		position = previous.handle;
+		previous.handle = -1;
+		index.put(node);
+		heap[position] = node;
+		node.handle = position;
+		siftUp(position);
+		siftDown(node.handle);
+	}
+
+	/**
+	 * Remove the Node at a position in the heap.
+	 *
+	 * @param position
+	 *            position of the Node to remove
+	 */
+	private void removeAt(int position) {
+		Node removed;
+		Node last;
+
+		removed = heap[position];
+		index.remove(removed.state());
+		removed.handle = -1;
+
+		size--;
+		last = heap[size];
+		heap[size] = null;
+
+		if (position != size) {
+			heap[position] = last;
+			last.handle = position;
+			siftUp(position);
+			siftDown(last.handle);
+		}
+	}
+
+	/**
+	 * Move a Node towards the root until its parent is no larger.
+	 *
+	 * @param position
+	 *            current position of the Node
+	 */
+	private void siftUp(int position) {
+		Node node;
+		int parent;
+
+		node = heap[position];
+		while (position > 0) {
+			parent = (position - 1) >>> 1;
+			if (comparator.compare(node, heap[parent]) >= 0) {
+				break;
+			}
+			heap[position] = heap[parent];
+			heap[position].handle = position;
+			position = parent;
+		}
+		heap[position] = node;
+		node.handle = position;
+	}
+
+	/**
+	 * Move a Node towards the leaves until neither child is smaller.
+	 *
+	 * @param position
+	 *            current position of the Node
+	 */
+	private void siftDown(int position) {
+		Node node;
+		int child;
+
+		node = heap[position];
+		while ((child = 2 * position + 1) < size) {
+			if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) < 0) {
+				child++;
+			}
+			if (comparator.compare(heap[child], node) >= 0) {
+				break;
+			}
+			heap[position] = heap[child];
+			heap[position].handle = position;
+			position = child;
+		}
+		heap[position] = node;
+		node.handle = position;
+	}
+}
@@ -15,4 +15,100 @@ abstract public class Heuristic {
 	 * @return value of heuristic for the given state
 	 */
 	abstract public double cost(State state);
+
+	/**
+	 * Compute an estimate of the cost of the best path between two states.
+	 * 
+	 * Bidirectional searches need estimates to arbitrary states, in particular
+	 * from a state back to the initial state. By default the estimate is zero,
+	 * which is admissible but uninformed; heuristics that do better say so
+	 * through estimatesToTarget().
+	 * 
+	 * @param state
+	 *            state for which the heuristic should be computed
+	 * @param target
+	 *            state to which the cost is estimated
+	 * @return estimate of the cost from state to target
+	 */
+	public double cost(State state, State target) {
+		return 0.0;
+	}
+
+	/**
+	 * Determine whether cost(State, State) gives an informed estimate.
+	 * 
+	 * Searches that need estimates to arbitrary states check this, so that a
+	 * heuristic that only knows the goal does not quietly turn them into
+	 * blind searches. By default it does not.
+	 * 
+	 * @return true if cost(State, State) is overridden with a real estimate
+	 */
+	public boolean estimatesToTarget() {
+		return false;
+	}
+
+	/**
+	 * Compute the value of the heuristic incrementally from a parent's value.
+	 * 
+	 * Heuristics that can update their value cheaply when a single action is
+	 * taken should override this method. Implementations must only rely on
+	 * the child state, the action and the parent's value because a search may
+	 * apply actions in place, in which case parent and child are the same
+	 * object. By default the child's value is computed from scratch.
+	 * 
+	 * @param parent
+	 *            state in which the action was taken
+	 * @param parent_cost
+	 *            value of the heuristic for the parent state
+	 * @param action
+	 *            action taken in the parent state
+	 * @param child
+	 *            state resulting from the action
+	 * @return value of heuristic for the child state
+	 */
+	public double cost(State parent, double parent_cost, Action action, State child) {
+		return cost(child);
+	}
+
+	/**
+	 * Compute the value of the heuristic where only values up to a bound
+	 * matter.
+	 * 
+	 * A search with a cut-off, such as IDA*, only needs to know whether the
+	 * value exceeds the bound. Once it is known to, a heuristic may stop early
+	 * and return any admissible value greater than the bound. By default the
+	 * value is computed in full.
+	 * 
+	 * @param state
+	 *            state for which the heuristic should be computed
+	 * @param bound
+	 *            largest value of interest to the caller
+	 * @return value of heuristic, or an admissible value above the bound
+	 */
+	public double cost(State state, double bound) {
+		return cost(state);
+	}
+
+	/**
+	 * Compute the value of the heuristic incrementally where only values up
+	 * to a bound matter.
+	 * 
+	 * The same rules apply as to cost(State, double) and to
+	 * cost(State, double, Action, State). By default the bound is ignored.
+	 * 
+	 * @param parent
+	 *            state in which the action was taken
+	 * @param parent_cost
+	 *            value of the heuristic for the parent state
+	 * @param action
+	 *            action taken in the parent state
+	 * @param child
+	 *            state resulting from the action
+	 * @param bound
+	 *            largest value of interest to the caller
+	 * @return value of heuristic, or an admissible value above the bound
+	 */
+	public double cost(State parent, double parent_cost, Action action, State child, double bound) {
+		return cost(parent, parent_cost, action, child);
+	}
 }
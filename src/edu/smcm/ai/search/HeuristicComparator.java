@@ -3,23 +3,96 @@ package edu.smcm.ai.search;
 import java.util.Comparator;
 
 /**
- * A comparator based on a heuristic. It is used in keeping a PriorityQueue in
- * an appropriate order.
+ * A comparator based on a heuristic. It is used in keeping a FrontierQueue in
+ * an appropriate order. The heuristic is not evaluated here; each Node caches
+ * its evaluation f = g + h when it is created.
+ *
+ * The heuristic may be given a weight w, ordering Nodes by f = g + w * h as in
+ * weighted A*. With an admissible heuristic and w &gt;= 1 the first goal
+ * expanded then costs at most w times the optimal. See Pohl, Heuristic Search
+ * Viewed as Path Finding in a Graph, Artificial Intelligence 1, 1970.
  */
 public class HeuristicComparator implements Comparator<Node> {
 
 	/**
-	 * The heuristic to be used.
+	 * The ways of ordering Nodes that have the same evaluation.
 	 */
-	private Heuristic h;
+	public static enum TieBreak {
+		None, HigherCost, LowerHeuristic;
+	}
+
+	/**
+	 * The tie-break to be used.
+	 */
+	private TieBreak tie_break;
+
+	/**
+	 * The weight of the heuristic in the evaluation.
+	 */
+	private double weight;
+
+	/**
+	 * The constructor.
+	 * 
+	 * Ties are broken in favour of the Node with the higher path cost, which
+	 * is the one nearer to a goal.
+	 */
+	public HeuristicComparator() {
+		this(TieBreak.HigherCost);
+	}
 
 	/**
 	 * The constructor.
 	 * 
-	 * @param h the heuristic function to be used by this comparator
+	 * @param tie_break how Nodes with the same evaluation are ordered
+	 */
+	public HeuristicComparator(TieBreak tie_break) {
+		this(1.0, tie_break);
+	}
+
+	/**
+	 * The constructor for a weighted evaluation.
+	 * 
+	 * Ties are broken in favour of the Node with the higher path cost.
+	 * 
+	 * @param weight weight of the heuristic, at least 1
+	 */
+	public HeuristicComparator(double weight) {
+		this(weight, TieBreak.HigherCost);
+	}
+
+	/**
+	 * The constructor for a weighted evaluation.
+	 * 
+	 * @param weight weight of the heuristic, at least 1
+	 * @param tie_break how Nodes with the same evaluation are ordered
+	 */
+	public HeuristicComparator(double weight, TieBreak tie_break) {
+		if (!(weight >= 1.0)) {
+			throw new IllegalArgumentException("The weight must be at least 1");
+		}
+
+		this.weight = weight;
+		this.tie_break = tie_break;
+	}
+
+	/**
+	 * The weight of the heuristic.
+	 * 
+	 * @return weight w in f = g + w * h
 	 */
-	public HeuristicComparator(Heuristic h) {
-		this.h = h;
+	public double weight() {
+		return weight;
+	}
+
+	/**
+	 * The weighted evaluation of a Node.
+	 * 
+	 * @param node the Node
+	 * @return g + w * h, which is the cached evaluation when w is 1
+	 */
+	public double evaluation(Node node) {
+		return (weight == 1.0) ? node.evaluation() : node.cost() + weight * node.heuristic();
 	}
 
 	/**
@@ -36,12 +109,23 @@ public class HeuristicComparator implements Comparator<Node> {
 	 */
 	@Override
 	public int compare(Node left, Node right) {
-		double left_cost;
-		double right_cost;
+		int result;
+
+		result = Double.compare(evaluation(left), evaluation(right));
 
-		left_cost = left.cost() + h.cost(left.state());
-		right_cost = right.cost() + h.cost(right.state());
+		if (result == 0) {
+			switch (tie_break) {
+			case HigherCost:
+				result = Double.compare(right.cost(), left.cost());
+				break;
+			case LowerHeuristic:
+				result = Double.compare(left.heuristic(), right.heuristic());
+				break;
+			case None:
+				break;
+			}
+		}
 
-		return Double.compare(left_cost, right_cost);
+		return result;
 	}
 }
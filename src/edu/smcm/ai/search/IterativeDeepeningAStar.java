@@ -0,0 +1,315 @@
+package edu.smcm.ai.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Implementation of Iterative Deepening A* (IDA*). See Russell and Norvig,
+ * Artificial Intelligence: A Modern Approach, Third Edition, p. 99.
+ *
+ * A sequence of depth-first searches is made, each bounded by a cut-off on
+ * the evaluation f = g + h. The cut-off for the next iteration is the
+ * smallest evaluation that exceeded the current one. Memory is linear in the
+ * depth of the solution. When the problem is reversible the search works on
+ * a single private copy of the initial state, applying and undoing actions in
+ * place, so no states are allocated during the search. The action that would
+ * undo the previous one is never tried. The heuristic is told how large a
+ * value matters at each node, so a composite heuristic can stop early.
+ *
+ * An optional TranspositionTable trades memory for fewer re-expansions: it
+ * raises the heuristic of states whose subtrees have been searched, and stops
+ * a state being searched twice in an iteration through different paths. See
+ * Reinefeld and Marsland, Enhanced Iterative-Deepening Search, IEEE PAMI
+ * 16(7), 1994.
+ */
+public class IterativeDeepeningAStar extends Search {
+
+	/**
+	 * The heuristic used to prune the search.
+	 */
+	private Heuristic heuristic;
+
+	/**
+	 * The actions from the initial state to the current state.
+	 */
+	private List<Action> path;
+
+	/**
+	 * The smallest evaluation that exceeded the current cut-off.
+	 */
+	private double next_bound;
+
+	/**
+	 * Counter for the number of nodes generated, a long since a hard
+	 * 15-puzzle needs billions
+	 */
+	private long nodes_generated;
+
+	/**
+	 * The Node through which events are reported to the listener, overwritten
+	 * for each one so that reporting allocates nothing.
+	 */
+	private Node report;
+
+	/**
+	 * Number of nodes generated in each iteration of the last search.
+	 */
+	private List<Long> iteration_nodes_generated;
+
+	/**
+	 * The table of what has been learned about states, or null for none.
+	 */
+	private TranspositionTable table;
+
+	/**
+	 * The number of the current iteration.
+	 */
+	private int iteration;
+
+	/**
+	 * Set when a goal has been found.
+	 */
+	private boolean found;
+
+	/**
+	 * Constructor for IDA*.
+	 *
+	 * @param h
+	 *            heuristic used to prune the search
+	 */
+	public IterativeDeepeningAStar(Heuristic h) {
+		this(h, null);
+	}
+
+	/**
+	 * Constructor for IDA* with a transposition table.
+	 *
+	 * The table is cleared at the start of every search.
+	 *
+	 * @param h
+	 *            heuristic used to prune the search
+	 * @param table
+	 *            transposition table, or null for none
+	 */
+	public IterativeDeepeningAStar(Heuristic h, TranspositionTable table) {
+		this.heuristic = h;
+		this.table = table;
+		this.path = new ArrayList<Action>();
+		this.iteration_nodes_generated = new ArrayList<Long>();
+		this.report = new Node(null);
+	}
+
+	/**
+	 * Get the number of nodes generated in this search.
+	 *
+	 * @return number of nodes generated, or Integer.MAX_VALUE if there were
+	 *         more (see totalNodesGenerated())
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#nodesGenerated()
+	 */
+	public int nodesGenerated() {
+		return (int) Math.min(nodes_generated, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Get the number of nodes generated in this search, however many.
+	 *
+	 * @return number of nodes generated
+	 */
+	public long totalNodesGenerated() {
+		return nodes_generated;
+	}
+
+	/**
+	 * Get the number of nodes generated in each iteration of the last search.
+	 *
+	 * @return nodes generated per iteration, first iteration first
+	 */
+	public List<Long> iterationNodesGenerated() {
+		return iteration_nodes_generated;
+	}
+
+	/**
+	 * Perform an IDA* search.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#search(edu.smcm.ai.search.Problem)
+	 */
+	public List<Action> search(Problem problem) {
+		State state;
+		double h;
+		double bound;
+		long generated_before;
+
+		path.clear();
+		iteration_nodes_generated.clear();
+		nodes_generated = 1;
+		iteration = 0;
+		found = false;
+		if (table != null) {
+			table.clear();
+		}
+
+		state = problem.reversible() ? problem.copy(problem.initialState()) : problem.initialState();
+		h = heuristic.cost(state);
+		bound = h;
+
+		if (listener() != null) {
+			listener().started(problem);
+			listener().generated(report.reuse(null, problem.initialState(), 0.0, h));
+		}
+
+		do {
+			next_bound = Double.POSITIVE_INFINITY;
+			generated_before = nodes_generated;
+			iteration++;
+
+			depthFirst(problem, state, 0.0, h, bound, null, Double.POSITIVE_INFINITY);
+
+			iteration_nodes_generated.add(nodes_generated - generated_before);
+
+			if (found) {
+				return finished(new ArrayList<Action>(path));
+			}
+
+			bound = next_bound;
+		} while (bound != Double.POSITIVE_INFINITY);
+
+		return finished(null);
+	}
+
+	/**
+	 * Bounded depth-first search from a state.
+	 *
+	 * On success the actions leading to the goal are left in path and found
+	 * is set. The value returned is a lower bound on the cost of any path to a
+	 * goal through the state that does not go straight back to its parent.
+	 * With a transposition table, that bound (or the one through the parent,
+	 * if smaller) is recorded for the state once its subtree has been
+	 * searched, and a state already searched in this iteration from no
+	 * further away is not searched again.
+	 *
+	 * @param problem
+	 *            problem being solved
+	 * @param state
+	 *            current state
+	 * @param cost
+	 *            path cost to the current state
+	 * @param h
+	 *            heuristic value of the current state
+	 * @param bound
+	 *            cut-off for this iteration
+	 * @param last
+	 *            action that led to the current state, or null at the root
+	 * @param via_parent
+	 *            lower bound on the cost to a goal through the parent, or
+	 *            infinity at the root
+	 * @return lower bound on the cost of a path to a goal through the state
+	 */
+	private double depthFirst(Problem problem, State state, double cost, double h, double bound, Action last,
+			double via_parent) {
+		double estimate;
+		double evaluation;
+		double lower;
+		List<Action> actions;
+		Action action;
+		Action reverse;
+		State child;
+		double step_cost;
+		double child_h;
+		long signature;
+		int slot;
+
+		// The heuristic may be raised by what the table has learned, but
+		// children are always evaluated from the heuristic itself.
+		estimate = h;
+		signature = 0;
+		if (table != null) {
+			signature = TranspositionTable.signature(state);
+			slot = table.find(signature);
+			if (slot >= 0) {
+				estimate = Math.max(h, table.bound(slot));
+				if (table.iteration(slot) == iteration && table.cost(slot) <= cost) {
+					evaluation = cost + estimate;
+					if (evaluation > bound && evaluation < next_bound) {
+						next_bound = evaluation;
+					}
+					return evaluation;
+				}
+			}
+		}
+
+		evaluation = cost + estimate;
+		if (evaluation > bound) {
+			if (evaluation < next_bound) {
+				next_bound = evaluation;
+			}
+			return evaluation;
+		}
+
+		if (problem.isGoalState(state)) {
+			found = true;
+			return cost;
+		}
+
+		// The search itself needs no Nodes; one is reused for the listener.
+		if (listener() != null) {
+			listener().expanded(report.reuse(last, state, cost, h), path.size(), 0);
+		}
+
+		reverse = (null == last) ? null : problem.inverse(last);
+		lower = Double.POSITIVE_INFINITY;
+
+		actions = problem.actions(state);
+		for (int index = 0; index < actions.size(); index++) {
+			action = actions.get(index);
+
+			if (action.equals(reverse)) {
+				continue;
+			}
+
+			nodes_generated++;
+			path.add(action);
+
+			if (problem.reversible()) {
+				problem.apply(state, action);
+				step_cost = problem.cost(state, action, state);
+				child_h = heuristic.cost(state, h, action, state, bound - cost - step_cost);
+				if (listener() != null) {
+					listener().generated(report.reuse(action, state, cost + step_cost, child_h));
+				}
+				lower = Math.min(lower,
+						depthFirst(problem, state, cost + step_cost, child_h, bound, action, step_cost + estimate));
+				if (found) {
+					return lower;
+				}
+				problem.undo(state, action);
+			} else {
+				child = problem.result(state, action);
+				step_cost = problem.cost(state, action, child);
+				child_h = heuristic.cost(state, h, action, child, bound - cost - step_cost);
+				if (listener() != null) {
+					listener().generated(report.reuse(action, child, cost + step_cost, child_h));
+				}
+				lower = Math.min(lower,
+						depthFirst(problem, child, cost + step_cost, child_h, bound, action, step_cost + estimate));
+				if (found) {
+					return lower;
+				}
+			}
+
+			path.remove(path.size() - 1);
+		}
+
+		if (table != null) {
+			table.store(signature, cost, Math.max(estimate, Math.min(lower - cost, via_parent)), iteration);
+		}
+
+		return lower;
+	}
+}
@@ -0,0 +1,323 @@
+package edu.smcm.ai.search;
+
+/**
+ * The maximum of several admissible heuristics, which is also admissible.
+ * 
+ * The components are evaluated lazily, one at a time. When the search gives a
+ * bound (see Heuristic.cost(State, double)) evaluation stops as soon as the
+ * largest value so far exceeds it, so the remaining components are never
+ * computed for nodes that are about to be pruned. The components should be
+ * given cheapest first.
+ * 
+ * One evaluation in sample_interval is a sample, on which every component is
+ * evaluated and timed whatever the bound, and each counts whether its value
+ * alone exceeded the bound (a cut-off). Sampling every component, rather
+ * than only those reached, keeps a component from looking useless merely
+ * because it is only reached when those before it have failed. Every so
+ * often the components are put in
+ * decreasing order of cut-off rate divided by average time, which is the
+ * order that least expected time is spent before a cut-off when the tests
+ * are independent. A strong but expensive component, such as a pattern
+ * database, is therefore only tried first when it cuts off often enough to
+ * pay for itself. Ties keep the order given.
+ * 
+ * NOTE: the counts are not synchronized, so an instance should not be shared
+ * between threads.
+ */
+public class MaximumHeuristic extends Heuristic {
+
+	/**
+	 * The number of evaluations between reorderings of the components.
+	 */
+	private static final int reorder_interval = 1024;
+
+	/**
+	 * One evaluation in this many is a sample; it must be a power of two.
+	 */
+	private static final int sample_interval = 16;
+
+	/**
+	 * The component heuristics in the order given.
+	 */
+	private Heuristic[] components;
+
+	/**
+	 * The order in which the components are currently evaluated.
+	 */
+	private int[] order;
+
+	/**
+	 * The number of samples with a finite bound.
+	 */
+	private long[] bounded;
+
+	/**
+	 * The number of those samples in which the component's value exceeded
+	 * the bound.
+	 */
+	private long[] cutoffs;
+
+	/**
+	 * The total time of each component in the samples in nanoseconds.
+	 */
+	private long[] time;
+
+	/**
+	 * The number of samples that timed each component.
+	 */
+	private long[] timed;
+
+	/**
+	 * The number of evaluations of the maximum.
+	 */
+	private long calls;
+
+	/**
+	 * The number of evaluations since the last reordering.
+	 */
+	private int since_reorder;
+
+	/**
+	 * A constructor.
+	 * 
+	 * @param components
+	 *            admissible heuristics, cheapest first
+	 */
+	public MaximumHeuristic(Heuristic... components) {
+		if (components.length == 0) {
+			throw new IllegalArgumentException("At least one heuristic is needed");
+		}
+
+		this.components = components.clone();
+		this.order = new int[components.length];
+		for (int index = 0; index < components.length; index++) {
+			order[index] = index;
+		}
+		this.bounded = new long[components.length];
+		this.cutoffs = new long[components.length];
+		this.time = new long[components.length];
+		this.timed = new long[components.length];
+		this.calls = 0;
+		this.since_reorder = 0;
+	}
+
+	/**
+	 * The number of component heuristics.
+	 * 
+	 * @return number of components
+	 */
+	public int size() {
+		return components.length;
+	}
+
+	/**
+	 * The fraction of samples with a bound in which a component's value alone
+	 * exceeded the bound.
+	 * 
+	 * @param component
+	 *            index of the component in the order given
+	 * @return cut-off rate, zero if there has been no sample with a bound
+	 */
+	public double cutoffRate(int component) {
+		return (bounded[component] == 0) ? 0.0 : (double) cutoffs[component] / bounded[component];
+	}
+
+	/**
+	 * The average time of a component's evaluations in the samples.
+	 * 
+	 * @param component
+	 *            index of the component in the order given
+	 * @return average time in nanoseconds, or infinity if none has been timed
+	 */
+	public double averageTime(int component) {
+		return (timed[component] == 0) ? Double.POSITIVE_INFINITY : (double) time[component] / timed[component];
+	}
+
+	/**
+	 * Maximum of all the components.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State state) {
+		return cost(state, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Maximum of the components, stopping once it exceeds the bound.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State, double)
+	 */
+	@Override
+	public double cost(State state, double bound) {
+		double result;
+		double value;
+		boolean sample;
+		long start;
+		int component;
+
+		result = Double.NEGATIVE_INFINITY;
+		sample = (++calls & (sample_interval - 1)) == 0;
+		start = 0;
+
+		for (int index = 0; index < order.length; index++) {
+			component = order[index];
+			if (sample) {
+				start = System.nanoTime();
+			}
+			value = components[component].cost(state, bound);
+			result = Math.max(result, value);
+			if (sample) {
+				time[component] += System.nanoTime() - start;
+				timed[component]++;
+				if (bound != Double.POSITIVE_INFINITY) {
+					bounded[component]++;
+					if (value > bound) {
+						cutoffs[component]++;
+					}
+				}
+			} else if (result > bound) {
+				break;
+			}
+		}
+
+		since_reorder++;
+		if (since_reorder == reorder_interval) {
+			reorder();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Maximum of the components computed afresh for the child.
+	 * 
+	 * The parent's value is the maximum, not the value of each component, so
+	 * the components cannot be updated incrementally.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State,
+	 * double, edu.smcm.ai.search.Action, edu.smcm.ai.search.State, double)
+	 */
+	@Override
+	public double cost(State parent, double parent_cost, Action action, State child, double bound) {
+		return cost(child, bound);
+	}
+
+	/**
+	 * Maximum of the components' estimates between two states.
+	 * 
+	 * Components that cannot estimate to a target would only add zeros, so
+	 * they are skipped.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State,
+	 * edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State state, State target) {
+		double result;
+
+		result = 0.0;
+		for (Heuristic component : components) {
+			if (component.estimatesToTarget()) {
+				result = Math.max(result, component.cost(state, target));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * The maximum estimates to a target if any of its components does.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#estimatesToTarget()
+	 */
+	@Override
+	public boolean estimatesToTarget() {
+		for (Heuristic component : components) {
+			if (component.estimatesToTarget()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * The value of trying a component early: its chance of a cut-off per
+	 * nanosecond.
+	 * 
+	 * The rate is smoothed so that a component is neither written off nor
+	 * promoted on a few samples, and a component that has never been timed
+	 * goes last.
+	 * 
+	 * @param component
+	 *            index of the component in the order given
+	 * @return smoothed cut-off rate divided by average time
+	 */
+	private double usefulness(int component) {
+		return (cutoffs[component] + 1.0) / (bounded[component] + 2.0) / averageTime(component);
+	}
+
+	/**
+	 * Put the components in decreasing order of usefulness.
+	 * 
+	 * An insertion sort is used: there are few components, they are usually
+	 * nearly in order already, and it is stable.
+	 */
+	private void reorder() {
+		double[] score;
+		int component;
+		int position;
+
+		since_reorder = 0;
+		score = new double[components.length];
+		for (int index = 0; index < components.length; index++) {
+			score[index] = usefulness(index);
+		}
+
+		for (int index = 1; index < order.length; index++) {
+			component = order[index];
+			position = index;
+			while (position > 0 && score[order[position - 1]] < score[component]) {
+				order[position] = order[position - 1];
+				position--;
+			}
+			order[position] = component;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("max(");
+
+		for (int index = 0; index < order.length; index++) {
+			if (index > 0) {
+				result.append(", ");
+			}
+			result.append(components[order[index]].getClass().getSimpleName());
+			result.append(String.format(" %.3f %.0fns", cutoffRate(order[index]), averageTime(order[index])));
+		}
+
+		return result.append(")").toString();
+	}
+}
@@ -1,6 +1,7 @@
 package edu.smcm.ai.search;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -29,6 +30,22 @@ public class Node {
 	 */
 	private double cost;
 
+	/**
+	 * The heuristic estimate of the cost from this state to a goal, h(n).
+	 */
+	private double heuristic;
+
+	/**
+	 * The evaluation of this Node, f(n) = g(n) + h(n). It is computed once
+	 * when the Node is created so comparators never recompute the heuristic.
+	 */
+	private double evaluation;
+
+	/**
+	 * Position of this Node in a FrontierQueue, or -1 if it is in none.
+	 */
+	int handle;
+
 	/**
 	 * Generate a new node given a parent node.
 	 * 
@@ -45,10 +62,31 @@ public class Node {
 	 *            <I>path</I>-cost of this node
 	 */
 	public Node(Node parent, Action action, State state, double cost) {
+		this(parent, action, state, cost, 0.0);
+	}
+
+	/**
+	 * Generate a new node given a parent node and a heuristic estimate.
+	 * 
+	 * @param parent
+	 *            node representing the previous state
+	 * @param action
+	 *            action leading to the current state
+	 * @param state
+	 *            current state
+	 * @param cost
+	 *            <I>path</I>-cost of this node
+	 * @param heuristic
+	 *            heuristic estimate of the cost from the state to a goal
+	 */
+	public Node(Node parent, Action action, State state, double cost, double heuristic) {
 		this.parent = parent;
 		this.action = action;
 		this.state = state;
 		this.cost = cost;
+		this.heuristic = heuristic;
+		this.evaluation = cost + heuristic;
+		this.handle = -1;
 	}
 
 	/**
@@ -66,6 +104,37 @@ public class Node {
 		this.action = null;
 		this.state = state;
 		this.cost = 0.0;
+		this.heuristic = 0.0;
+		this.evaluation = 0.0;
+		this.handle = -1;
+	}
+
+	/**
+	 * Overwrite this Node with another parentless Node.
+	 * 
+	 * Searches that make no Nodes of their own use this to report every event
+	 * to a listener through a single Node, so that reporting allocates
+	 * nothing. The Node must not be in a FrontierQueue.
+	 * 
+	 * @param action
+	 *            action leading to the state
+	 * @param state
+	 *            the state
+	 * @param cost
+	 *            <I>path</I>-cost of the state
+	 * @param heuristic
+	 *            heuristic estimate of the cost from the state to a goal
+	 * @return this Node
+	 */
+	Node reuse(Action action, State state, double cost, double heuristic) {
+		this.parent = null;
+		this.action = action;
+		this.state = state;
+		this.cost = cost;
+		this.heuristic = heuristic;
+		this.evaluation = cost + heuristic;
+
+		return this;
 	}
 
 	/**
@@ -77,6 +146,24 @@ public class Node {
 		return cost;
 	}
 
+	/**
+	 * Get heuristic estimate of the cost from this Node to a goal, h(n).
+	 * 
+	 * @return heuristic estimate of this Node
+	 */
+	public double heuristic() {
+		return heuristic;
+	}
+
+	/**
+	 * Get evaluation of this Node, f(n) = g(n) + h(n).
+	 * 
+	 * @return path cost plus heuristic estimate
+	 */
+	public double evaluation() {
+		return evaluation;
+	}
+
 	/**
 	 * Get parent (or predecessor) of this Node.
 	 * 
@@ -108,19 +195,20 @@ public class Node {
 	 * Get sequence of actions resulting in this Node.
 	 * 
 	 * The sequence of actions from the initial state to the state represented
-	 * by this Node in order first to last.
+	 * by this Node in order first to last. The parents are followed in a
+	 * loop rather than by recursion, so a deep solution cannot overflow the
+	 * stack.
 	 * 
 	 * @return sequence of actions from initial state
 	 */
 	public List<Action> solution() {
 		List<Action> result;
 
-		if (null == parent) {
-			result = new ArrayList<Action>();
-		} else {
-			result = parent.solution();
-			result.add(action);
+		result = new ArrayList<Action>();
+		for (Node node = this; node.parent != null; node = node.parent) {
+			result.add(node.action);
 		}
+		Collections.reverse(result);
 
 		return result;
 	}
@@ -0,0 +1,460 @@
+package edu.smcm.ai.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.smcm.utils.LongIntHashMap;
+
+/**
+ * A store of search nodes held in parallel primitive arrays.
+ *
+ * A node is an int handle, its index in the arrays, which hold the handle of
+ * its parent, the action that led to it, its path cost g, its heuristic
+ * estimate h and the key of its state. There is no object per node, so the
+ * garbage collector has nothing to trace however many nodes there are.
+ * Actions are stored as small ordinals into a table of the distinct actions
+ * seen. The open nodes are kept in a binary heap of handles, ordered by
+ * f = g + h with ties going to the larger g, as the default
+ * HeuristicComparator does. Each state has at most one node, found from its
+ * key through a LongIntHashMap, and a node is open when it has a position in
+ * the heap. clear() keeps the arrays, so a store can be reused across
+ * searches without allocation.
+ *
+ * NOTE: only states that encode to a long (State.hasKey()) can be stored.
+ */
+public class NodeArena {
+
+	/**
+	 * Handle meaning no node.
+	 */
+	public static final int none = -1;
+
+	/**
+	 * The handle of the parent of each node.
+	 */
+	private int[] parents;
+
+	/**
+	 * The ordinal of the action that led to each node.
+	 */
+	private short[] actions;
+
+	/**
+	 * The path cost of each node.
+	 */
+	private double[] costs;
+
+	/**
+	 * The heuristic estimate of each node.
+	 */
+	private double[] heuristics;
+
+	/**
+	 * The key of the state of each node.
+	 */
+	private long[] keys;
+
+	/**
+	 * The position of each node in the heap, or -1 if it is closed.
+	 */
+	private int[] positions;
+
+	/**
+	 * The number of nodes.
+	 */
+	private int size;
+
+	/**
+	 * The heap of handles of open nodes. The smallest is at index 0.
+	 */
+	private int[] heap;
+
+	/**
+	 * The number of open nodes.
+	 */
+	private int open;
+
+	/**
+	 * The handle of the node for each key.
+	 */
+	private LongIntHashMap index;
+
+	/**
+	 * The distinct actions seen, indexed by ordinal.
+	 */
+	private List<Action> action_table;
+
+	/**
+	 * The ordinal of each distinct action.
+	 */
+	private Map<Action, Integer> ordinals;
+
+	/**
+	 * A constructor.
+	 */
+	public NodeArena() {
+		this(1024);
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param expected
+	 *            number of nodes expected
+	 */
+	public NodeArena(int expected) {
+		expected = Math.max(16, expected);
+		this.parents = new int[expected];
+		this.actions = new short[expected];
+		this.costs = new double[expected];
+		this.heuristics = new double[expected];
+		this.keys = new long[expected];
+		this.positions = new int[expected];
+		this.heap = new int[expected];
+		this.index = new LongIntHashMap(expected, none);
+		this.action_table = new ArrayList<Action>();
+		this.ordinals = new HashMap<Action, Integer>();
+	}
+
+	/**
+	 * The number of nodes.
+	 *
+	 * @return number of nodes, open and closed
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * The number of open nodes.
+	 *
+	 * @return number of nodes in the heap
+	 */
+	public int openSize() {
+		return open;
+	}
+
+	/**
+	 * Remove all nodes.
+	 */
+	public void clear() {
+		size = 0;
+		open = 0;
+		index.clear();
+	}
+
+	/**
+	 * Find the node for a state.
+	 *
+	 * @param key
+	 *            key of the state
+	 * @return handle of the node, or none
+	 */
+	public int find(long key) {
+		return index.get(key);
+	}
+
+	/**
+	 * Add a node for a state that has none, and open it.
+	 *
+	 * @param parent
+	 *            handle of the parent, or none
+	 * @param action
+	 *            action that led to the state, or null
+	 * @param key
+	 *            key of the state
+	 * @param cost
+	 *            path cost
+	 * @param heuristic
+	 *            heuristic estimate
+	 * @return handle of the new node
+	 */
+	public int add(int parent, Action action, long key, double cost, double heuristic) {
+		int handle;
+
+		if (size == parents.length) {
+			grow();
+		}
+
+		handle = size++;
+		parents[handle] = parent;
+		actions[handle] = ordinal(action);
+		costs[handle] = cost;
+		heuristics[handle] = heuristic;
+		keys[handle] = key;
+		positions[handle] = none;
+		index.put(key, handle);
+		push(handle);
+
+		return handle;
+	}
+
+	/**
+	 * Give a node a cheaper path and open it if it was closed.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @param parent
+	 *            handle of the new parent
+	 * @param action
+	 *            action from the new parent
+	 * @param cost
+	 *            the new path cost
+	 */
+	public void improve(int handle, int parent, Action action, double cost) {
+		parents[handle] = parent;
+		actions[handle] = ordinal(action);
+		costs[handle] = cost;
+
+		if (positions[handle] == none) {
+			push(handle);
+		} else {
+			siftUp(positions[handle]);
+		}
+	}
+
+	/**
+	 * Determine whether a node is open.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @return true if the node is in the heap
+	 */
+	public boolean isOpen(int handle) {
+		return positions[handle] != none;
+	}
+
+	/**
+	 * Remove the open node with the smallest evaluation, closing it.
+	 *
+	 * @return its handle, or none if there are no open nodes
+	 */
+	public int remove() {
+		int result;
+		int last;
+
+		if (open == 0) {
+			return none;
+		}
+
+		result = heap[0];
+		positions[result] = none;
+		open--;
+		if (open > 0) {
+			last = heap[open];
+			heap[0] = last;
+			positions[last] = 0;
+			siftDown(0);
+		}
+
+		return result;
+	}
+
+	/**
+	 * The handle of the parent of a node.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @return handle of the parent, or none
+	 */
+	public int parent(int handle) {
+		return parents[handle];
+	}
+
+	/**
+	 * The action that led to a node.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @return the action, or null for a root
+	 */
+	public Action action(int handle) {
+		return (actions[handle] < 0) ? null : action_table.get(actions[handle]);
+	}
+
+	/**
+	 * The path cost of a node.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @return path cost
+	 */
+	public double cost(int handle) {
+		return costs[handle];
+	}
+
+	/**
+	 * The heuristic estimate of a node.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @return heuristic estimate
+	 */
+	public double heuristic(int handle) {
+		return heuristics[handle];
+	}
+
+	/**
+	 * The key of the state of a node.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @return key of the state
+	 */
+	public long key(int handle) {
+		return keys[handle];
+	}
+
+	/**
+	 * The actions from the root to a node.
+	 *
+	 * The parents are followed in a loop, so a deep solution cannot overflow
+	 * the stack.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 * @return actions in order first to last
+	 */
+	public List<Action> solution(int handle) {
+		List<Action> result;
+
+		result = new ArrayList<Action>();
+		for (int node = handle; parents[node] != none; node = parents[node]) {
+			result.add(action_table.get(actions[node]));
+		}
+		Collections.reverse(result);
+
+		return result;
+	}
+
+	/**
+	 * The ordinal of an action, adding it to the table if it is new.
+	 *
+	 * @param action
+	 *            the action, or null
+	 * @return its ordinal, or -1 for null
+	 */
+	private short ordinal(Action action) {
+		Integer result;
+
+		if (null == action) {
+			return -1;
+		}
+
+		result = ordinals.get(action);
+		if (null == result) {
+			if (action_table.size() == Short.MAX_VALUE) {
+				throw new IllegalStateException("Too many distinct actions");
+			}
+			result = action_table.size();
+			action_table.add(action);
+			ordinals.put(action, result);
+		}
+
+		return (short) (int) result;
+	}
+
+	/**
+	 * Double the capacity of the arrays.
+	 */
+	private void grow() {
+		int capacity;
+
+		capacity = parents.length * 2;
+		parents = Arrays.copyOf(parents, capacity);
+		actions = Arrays.copyOf(actions, capacity);
+		costs = Arrays.copyOf(costs, capacity);
+		heuristics = Arrays.copyOf(heuristics, capacity);
+		keys = Arrays.copyOf(keys, capacity);
+		positions = Arrays.copyOf(positions, capacity);
+		heap = Arrays.copyOf(heap, capacity);
+	}
+
+	/**
+	 * Put a closed node in the heap.
+	 *
+	 * @param handle
+	 *            handle of the node
+	 */
+	private void push(int handle) {
+		heap[open] = handle;
+		positions[handle] = open;
+		open++;
+		siftUp(open - 1);
+	}
+
+	/**
+	 * Determine whether one node should be removed before another.
+	 *
+	 * @param left
+	 *            handle of a node
+	 * @param right
+	 *            handle of another node
+	 * @return true if left has the smaller evaluation, or the same evaluation
+	 *         and the larger path cost
+	 */
+	private boolean less(int left, int right) {
+		double left_evaluation = costs[left] + heuristics[left];
+		double right_evaluation = costs[right] + heuristics[right];
+
+		if (left_evaluation != right_evaluation) {
+			return left_evaluation < right_evaluation;
+		}
+
+		return costs[left] > costs[right];
+	}
+
+	/**
+	 * Move a handle towards the root until its parent is no larger.
+	 *
+	 * @param position
+	 *            current position in the heap
+	 */
+	private void siftUp(int position) {
+		int handle;
+		int parent;
+
+		handle = heap[position];
+		while (position > 0) {
+			parent = (position - 1) >>> 1;
+			if (!less(handle, heap[parent])) {
+				break;
+			}
+			heap[position] = heap[parent];
+			positions[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = handle;
+		positions[handle] = position;
+	}
+
+	/**
+	 * Move a handle towards the leaves until neither child is smaller.
+	 *
+	 * @param position
+	 *            current position in the heap
+	 */
+	private void siftDown(int position) {
+		int handle;
+		int child;
+
+		handle = heap[position];
+		while ((child = 2 * position + 1) < open) {
+			if (child + 1 < open && less(heap[child + 1], heap[child])) {
+				child++;
+			}
+			if (!less(heap[child], handle)) {
+				break;
+			}
+			heap[position] = heap[child];
+			positions[heap[position]] = position;
+			position = child;
+		}
+		heap[position] = handle;
+		positions[handle] = position;
+	}
+}
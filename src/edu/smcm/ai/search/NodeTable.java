@@ -0,0 +1,219 @@
+package edu.smcm.ai.search;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.smcm.utils.LongHashMap;
+
+/**
+ * A table of Nodes indexed by their States.
+ * 
+ * When the States can be encoded in a long the Nodes are kept in a
+ * LongHashMap, which allocates nothing per entry and is cleared in amortised
+ * constant time; otherwise a HashMap is used. Which is used is decided by the first
+ * Node added after the table is cleared.
+ * 
+ * When the Problem numbers its States densely (see Problem.indexCount()) and
+ * there are few enough of them, a search may instead have the table index
+ * the Nodes by that number in an array, which needs no hashing at all, with a
+ * bitmap of the numbers in use. The 181,440 states of the 3x3 puzzle need an
+ * array of 9! references and a bitmap of 45 KB.
+ */
+class NodeTable {
+
+	/**
+	 * The largest number of States that are indexed densely.
+	 */
+	private static final long dense_limit = 1L << 22;
+
+	/**
+	 * Nodes indexed by State, for States without keys.
+	 */
+	private Map<State, Node> nodes;
+
+	/**
+	 * Nodes indexed by the key of their State.
+	 */
+	private LongHashMap<Node> keyed_nodes;
+
+	/**
+	 * Whether the States have keys, or null if not yet known.
+	 */
+	private Boolean keyed;
+
+	/**
+	 * The problem whose index numbers the States, or null if the table is not
+	 * dense.
+	 */
+	private Problem problem;
+
+	/**
+	 * Nodes found at the index of their State, for dense tables.
+	 */
+	private Node[] dense_nodes;
+
+	/**
+	 * The indices that hold a Node, for dense tables.
+	 */
+	private BitSet occupied;
+
+	/**
+	 * The number of Nodes in a dense table.
+	 */
+	private int dense_size;
+
+	/**
+	 * A constructor.
+	 */
+	NodeTable() {
+		this.nodes = new HashMap<State, Node>();
+		this.keyed_nodes = new LongHashMap<Node>();
+		this.keyed = null;
+		this.problem = null;
+	}
+
+	/**
+	 * Index the Nodes by the index of their States in a problem, if it has
+	 * one and there are few enough States.
+	 * 
+	 * The table must be empty. It stays dense until it is next cleared. The
+	 * arrays are kept for the next problem with the same number of States.
+	 * 
+	 * @param problem
+	 *            the problem being searched
+	 * @return true if the table is now dense
+	 */
+	boolean index(Problem problem) {
+		long count;
+
+		count = problem.indexCount();
+		if (count <= 0 || count > dense_limit) {
+			return false;
+		}
+
+		if (null == dense_nodes || dense_nodes.length != count) {
+			dense_nodes = new Node[(int) count];
+			occupied = new BitSet((int) count);
+		}
+		this.problem = problem;
+		this.dense_size = 0;
+
+		return true;
+	}
+
+	/**
+	 * Find the Node for a State.
+	 * 
+	 * @param state
+	 *            state to look for
+	 * @return Node for the State, or null if there is none
+	 */
+	Node get(State state) {
+		if (problem != null) {
+			return dense_nodes[(int) problem.index(state)];
+		} else if (null == keyed) {
+			return null;
+		} else if (keyed) {
+			return keyed_nodes.get(state.key());
+		} else {
+			return nodes.get(state);
+		}
+	}
+
+	/**
+	 * Add a Node, replacing any Node for the same State.
+	 * 
+	 * @param node
+	 *            Node to add
+	 */
+	void put(Node node) {
+		int slot;
+
+		if (problem != null) {
+			slot = (int) problem.index(node.state());
+			if (!occupied.get(slot)) {
+				occupied.set(slot);
+				dense_size++;
+			}
+			dense_nodes[slot] = node;
+			return;
+		}
+
+		if (null == keyed) {
+			keyed = node.state().hasKey();
+		}
+
+		if (keyed) {
+			keyed_nodes.put(node.state().key(), node);
+		} else {
+			nodes.put(node.state(), node);
+		}
+	}
+
+	/**
+	 * Remove the Node for a State.
+	 * 
+	 * @param state
+	 *            state whose Node is to be removed
+	 * @return the Node removed, or null if there was none
+	 */
+	Node remove(State state) {
+		int slot;
+		Node result;
+
+		if (problem != null) {
+			slot = (int) problem.index(state);
+			result = dense_nodes[slot];
+			if (result != null) {
+				occupied.clear(slot);
+				dense_nodes[slot] = null;
+				dense_size--;
+			}
+			return result;
+		}
+
+		if (null == keyed) {
+			return null;
+		} else if (keyed) {
+			return keyed_nodes.remove(state.key());
+		} else {
+			return nodes.remove(state);
+		}
+	}
+
+	/**
+	 * The number of Nodes in the table.
+	 * 
+	 * @return number of Nodes
+	 */
+	int size() {
+		if (problem != null) {
+			return dense_size;
+		} else if (null == keyed) {
+			return 0;
+		} else if (keyed) {
+			return keyed_nodes.size();
+		} else {
+			return nodes.size();
+		}
+	}
+
+	/**
+	 * Remove all Nodes.
+	 */
+	void clear() {
+		if (problem != null) {
+			// Only the slots in use need to be emptied
+			for (int slot = occupied.nextSetBit(0); slot >= 0; slot = occupied.nextSetBit(slot + 1)) {
+				dense_nodes[slot] = null;
+			}
+			occupied.clear();
+			dense_size = 0;
+			problem = null;
+		}
+		nodes.clear();
+		keyed_nodes.clear();
+		keyed = null;
+	}
+}
@@ -0,0 +1,448 @@
+package edu.smcm.ai.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of Hash Distributed A* (HDA*). See Kishimoto, Fukunaga and
+ * Botea, Evaluation of a Simple, Scalable, Parallel Best-First Search
+ * Strategy, Artificial Intelligence 195, 2013.
+ *
+ * Every state is owned by one worker thread, chosen by its 64-bit hash
+ * (State.hash64()). Each worker has its own frontier and explored table and
+ * only ever touches the Nodes of states it owns. A child owned by another
+ * worker is sent to it in a batch through that worker's inbox, a lock-free
+ * queue with many producers and one consumer. Each worker has its own
+ * heuristic from a supplier, since heuristics may keep scratch space.
+ *
+ * A goal is only accepted when it is expanded, and the cheapest goal found so
+ * far (the incumbent) is shared. Nodes whose evaluation is no better than
+ * the incumbent are discarded. The search ends when no worker has a Node
+ * better than the incumbent and no batch is in flight. This is detected
+ * with a single counter of busy workers plus batches in flight: a worker only
+ * becomes busy by taking a batch, and counts itself busy before it uncounts
+ * the batch, so the counter is zero only when the search is truly over. With
+ * an admissible heuristic the incumbent is then optimal. States reached again
+ * more cheaply are re-opened, as in UniformCostSearch.
+ *
+ * A listener is told only when the search starts and finishes, since the
+ * workers cannot share it.
+ */
+public class ParallelAStar extends Search {
+
+	/**
+	 * The number of Nodes sent to another worker in one batch.
+	 */
+	private static final int batch_size = 64;
+
+	/**
+	 * The number of Nodes a worker expands between sending partial batches.
+	 */
+	private static final int expansions_per_round = 32;
+
+	/**
+	 * One worker thread and the states it owns.
+	 */
+	private class Worker implements Runnable {
+
+		/**
+		 * The index of this worker.
+		 */
+		private int identity;
+
+		/**
+		 * This worker's own heuristic.
+		 */
+		private Heuristic heuristic;
+
+		/**
+		 * The frontier of the states this worker owns.
+		 */
+		private FrontierQueue frontier;
+
+		/**
+		 * The explored Nodes of the states this worker owns.
+		 */
+		private NodeTable explored;
+
+		/**
+		 * Batches of Nodes sent to this worker.
+		 */
+		private ConcurrentLinkedQueue<List<Node>> inbox;
+
+		/**
+		 * Batches being filled for each other worker.
+		 */
+		private List<List<Node>> outbox;
+
+		/**
+		 * Buffer for the children of the Node being expanded.
+		 */
+		private List<Node> children;
+
+		/**
+		 * Whether this worker is counted as busy.
+		 */
+		private boolean busy;
+
+		/**
+		 * Counter for the number of nodes generated by this worker.
+		 */
+		private int nodes_generated;
+
+		/**
+		 * A constructor.
+		 *
+		 * @param identity
+		 *            index of this worker
+		 * @param heuristic
+		 *            heuristic for this worker alone
+		 */
+		public Worker(int identity, Heuristic heuristic) {
+			this.identity = identity;
+			this.heuristic = heuristic;
+			this.frontier = new FrontierQueue(new HeuristicComparator());
+			this.explored = new NodeTable();
+			this.inbox = new ConcurrentLinkedQueue<List<Node>>();
+			this.outbox = new ArrayList<List<Node>>();
+			this.children = new ArrayList<Node>(4);
+			this.busy = true;
+			this.nodes_generated = 0;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			Node node;
+
+			try {
+				while (!done) {
+					receive();
+
+					for (int expansion = 0; expansion < expansions_per_round; expansion++) {
+						node = frontier.peek();
+						if (null == node) {
+							break;
+						}
+						if (node.evaluation() >= bound()) {
+							// Nothing here can beat the incumbent, and it only gets cheaper
+							frontier.clear();
+							break;
+						}
+						expand(frontier.remove());
+					}
+
+					send();
+
+					if (frontier.isEmpty() && inbox.isEmpty()) {
+						if (busy) {
+							busy = false;
+							pending.decrementAndGet();
+						}
+						if (pending.get() == 0) {
+							done = true;
+						} else {
+							Thread.onSpinWait();
+						}
+					}
+				}
+			} finally {
+				// Stop the other workers if this one fails
+				done = true;
+			}
+		}
+
+		/**
+		 * Take every batch from the inbox.
+		 */
+		private void receive() {
+			List<Node> batch;
+
+			while ((batch = inbox.poll()) != null) {
+				if (!busy) {
+					busy = true;
+					pending.incrementAndGet();
+				}
+				for (Node node : batch) {
+					insert(node);
+				}
+				pending.decrementAndGet();
+			}
+		}
+
+		/**
+		 * Put a Node for a state this worker owns on its frontier, unless a
+		 * Node at least as cheap is known.
+		 *
+		 * @param node
+		 *            the Node
+		 */
+		private void insert(Node node) {
+			Node existing;
+
+			if (node.evaluation() >= bound()) {
+				return;
+			}
+
+			existing = frontier.get(node.state());
+			if (existing != null) {
+				if (node.cost() < existing.cost()) {
+					frontier.add(node);
+				}
+				return;
+			}
+
+			existing = explored.get(node.state());
+			if (existing != null) {
+				if (existing.cost() <= node.cost()) {
+					return;
+				}
+				explored.remove(node.state());
+			}
+
+			frontier.add(node);
+		}
+
+		/**
+		 * Expand a Node, or accept it as the incumbent if it is a goal.
+		 *
+		 * @param node
+		 *            the Node
+		 */
+		private void expand(Node node) {
+			Node child;
+			Node best;
+			int owner;
+
+			if (problem.isGoalState(node.state())) {
+				do {
+					best = incumbent.get();
+				} while ((null == best || node.cost() < best.cost()) && !incumbent.compareAndSet(best, node));
+				return;
+			}
+
+			explored.put(node);
+
+			problem.expand(node, heuristic, children);
+			for (int index = 0; index < children.size(); index++) {
+				child = children.get(index);
+				nodes_generated++;
+
+				owner = owner(child.state());
+				if (owner == identity) {
+					insert(child);
+				} else if (child.evaluation() < bound()) {
+					outbox.get(owner).add(child);
+					if (outbox.get(owner).size() == batch_size) {
+						post(owner);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Send every partly filled batch.
+		 */
+		private void send() {
+			for (int owner = 0; owner < outbox.size(); owner++) {
+				if (!outbox.get(owner).isEmpty()) {
+					post(owner);
+				}
+			}
+		}
+
+		/**
+		 * Send the batch for another worker.
+		 *
+		 * The batch is counted before it is queued, while this worker is
+		 * still counted as busy.
+		 *
+		 * @param owner
+		 *            index of the other worker
+		 */
+		private void post(int owner) {
+			pending.incrementAndGet();
+			workers[owner].inbox.add(outbox.get(owner));
+			outbox.set(owner, new ArrayList<Node>(batch_size));
+		}
+	}
+
+	/**
+	 * Supplier of a heuristic for each worker.
+	 */
+	private Supplier<Heuristic> heuristics;
+
+	/**
+	 * The number of worker threads.
+	 */
+	private int worker_count;
+
+	/**
+	 * The problem being solved.
+	 */
+	private Problem problem;
+
+	/**
+	 * The workers of the current search.
+	 */
+	private Worker[] workers;
+
+	/**
+	 * The cheapest goal Node found so far, or null if none.
+	 */
+	private AtomicReference<Node> incumbent;
+
+	/**
+	 * The number of busy workers plus the number of batches in flight.
+	 */
+	private AtomicLong pending;
+
+	/**
+	 * Set when the search is over.
+	 */
+	private volatile boolean done;
+
+	/**
+	 * Counter for the number of nodes generated
+	 */
+	private int nodes_generated;
+
+	/**
+	 * A constructor using one worker per available processor.
+	 *
+	 * @param heuristics
+	 *            supplier of a heuristic for each worker
+	 */
+	public ParallelAStar(Supplier<Heuristic> heuristics) {
+		this(heuristics, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param heuristics
+	 *            supplier of a heuristic for each worker
+	 * @param workers
+	 *            number of worker threads
+	 */
+	public ParallelAStar(Supplier<Heuristic> heuristics, int workers) {
+		if (workers < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+
+		this.heuristics = heuristics;
+		this.worker_count = workers;
+	}
+
+	/**
+	 * Get the number of nodes generated in this search.
+	 *
+	 * @return number of nodes generated
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#nodesGenerated()
+	 */
+	public int nodesGenerated() {
+		return nodes_generated;
+	}
+
+	/**
+	 * Perform a parallel A* search.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Search#search(edu.smcm.ai.search.Problem)
+	 */
+	public List<Action> search(Problem problem) {
+		ExecutorService pool;
+		List<Future<?>> futures;
+		Node root;
+
+		this.problem = problem;
+		this.workers = new Worker[worker_count];
+		this.incumbent = new AtomicReference<Node>();
+		this.pending = new AtomicLong(worker_count);
+		this.done = false;
+
+		for (int identity = 0; identity < worker_count; identity++) {
+			workers[identity] = new Worker(identity, heuristics.get());
+		}
+		for (Worker worker : workers) {
+			for (int owner = 0; owner < worker_count; owner++) {
+				worker.outbox.add(new ArrayList<Node>(batch_size));
+			}
+		}
+
+		if (listener() != null) {
+			listener().started(problem);
+		}
+
+		root = problem.initialNode(workers[0].heuristic);
+		workers[owner(root.state())].frontier.add(root);
+
+		pool = Executors.newFixedThreadPool(worker_count);
+		futures = new ArrayList<Future<?>>(worker_count);
+		try {
+			for (Worker worker : workers) {
+				futures.add(pool.submit(worker));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+		} catch (InterruptedException exception) {
+			done = true;
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while searching", exception);
+		} catch (ExecutionException exception) {
+			throw new IllegalStateException("Search failed", exception.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		nodes_generated = 1;
+		for (Worker worker : workers) {
+			nodes_generated += worker.nodes_generated;
+		}
+		workers = null;
+		this.problem = null;
+
+		return finished((null == incumbent.get()) ? null : incumbent.get().solution());
+	}
+
+	/**
+	 * The cost of the incumbent.
+	 *
+	 * @return cost of the cheapest goal found, or infinity if none
+	 */
+	private double bound() {
+		Node best = incumbent.get();
+
+		return (null == best) ? Double.POSITIVE_INFINITY : best.cost();
+	}
+
+	/**
+	 * The worker that owns a state.
+	 *
+	 * @param state
+	 *            the state
+	 * @return index of the owning worker
+	 */
+	private int owner(State state) {
+		return (int) (((state.hash64() >>> 33) * worker_count) >>> 31);
+	}
+}
@@ -34,6 +34,18 @@ abstract public class Problem {
 	 */
 	abstract public boolean isGoalState(State state);
 
+	/**
+	 * The single goal state of the problem, for problems that have one.
+	 * 
+	 * Bidirectional searches need to know the goal in order to search
+	 * backwards from it.
+	 * 
+	 * @return the goal state, or null if there is not exactly one
+	 */
+	public State goalState() {
+		return null;
+	}
+
 	/**
 	 * Apply an action to a state.
 	 * 
@@ -62,6 +74,107 @@ abstract public class Problem {
 	 */
 	abstract public double cost(State start, Action action, State end);
 
+	/**
+	 * Determine whether actions can be applied to states in place and undone.
+	 * 
+	 * Problems that return true must implement copy(), apply() and inverse().
+	 * Depth-first searches can then work on a single mutable state instead of
+	 * allocating a new state for every child.
+	 * 
+	 * @return true if states can be mutated in place
+	 */
+	public boolean reversible() {
+		return false;
+	}
+
+	/**
+	 * Make a private copy of a state that may be mutated with apply().
+	 * 
+	 * @param state
+	 *            state to copy
+	 * @return a copy of the state
+	 */
+	public State copy(State state) {
+		throw new UnsupportedOperationException("States of this problem cannot be copied");
+	}
+
+	/**
+	 * Apply an action to a state in place.
+	 * 
+	 * The state must be one obtained from copy(), never one that may be shared
+	 * with the rest of a search (for example one held by a Node).
+	 * 
+	 * @param state
+	 *            state to be changed
+	 * @param action
+	 *            action to take
+	 */
+	public void apply(State state, Action action) {
+		throw new UnsupportedOperationException("States of this problem cannot be changed in place");
+	}
+
+	/**
+	 * Undo an action applied in place.
+	 * 
+	 * @param state
+	 *            state to be changed
+	 * @param action
+	 *            action previously applied to the state
+	 */
+	public void undo(State state, Action action) {
+		apply(state, inverse(action));
+	}
+
+	/**
+	 * The action that undoes another.
+	 * 
+	 * @param action
+	 *            an action
+	 * @return the action that reverses it, or null if there is none
+	 */
+	public Action inverse(Action action) {
+		return null;
+	}
+
+	/**
+	 * Make the state that has a key.
+	 * 
+	 * This is the inverse of State.key(), for searches that keep only the
+	 * keys of states.
+	 * 
+	 * @param key
+	 *            key of a state of this problem
+	 * @return a new state with that key
+	 */
+	public State decode(long key) {
+		throw new UnsupportedOperationException("States of this problem cannot be made from keys");
+	}
+
+	/**
+	 * The number of states in the perfect hash of the states, if there is one.
+	 * 
+	 * A problem whose states can be numbered densely from zero, with no two
+	 * states sharing a number, lets a search keep its tables in arrays indexed
+	 * by the number instead of in hash tables, when there are few enough
+	 * states.
+	 * 
+	 * @return the number of indices, or 0 if the states cannot be indexed
+	 */
+	public long indexCount() {
+		return 0;
+	}
+
+	/**
+	 * The index of a state in the perfect hash of the states.
+	 * 
+	 * @param state
+	 *            a state of this problem
+	 * @return its index, from 0 to indexCount() - 1
+	 */
+	public long index(State state) {
+		throw new UnsupportedOperationException("States of this problem cannot be indexed");
+	}
+
 	/**
 	 * Create a child node in the search tree.
 	 * 
@@ -75,13 +188,58 @@ abstract public class Problem {
 	 * @return node for resulting state
 	 */
 	public Node childNode(Node parent, Action action) {
+		return childNode(parent, action, null);
+	}
+
+	/**
+	 * Create a child node in the search tree, evaluating a heuristic for it.
+	 * 
+	 * The heuristic is evaluated exactly once here and cached in the Node, so
+	 * that ordering the frontier never has to evaluate it again. The
+	 * incremental form of the heuristic is used, so a heuristic that can be
+	 * updated from the parent's value need not examine the whole state.
+	 * 
+	 * @param parent
+	 *            node for initial state
+	 * @param action
+	 *            action to be taken
+	 * @param h
+	 *            heuristic to evaluate, or null for none
+	 * @return node for resulting state
+	 */
+	public Node childNode(Node parent, Action action, Heuristic h) {
 		State end;
 		double step_cost;
 
 		end = result(parent.state(), action);
 		step_cost = cost(parent.state(), action, end);
 
-		return new Node(parent, action, end, parent.cost() + step_cost);
+		return new Node(parent, action, end, parent.cost() + step_cost,
+				(null == h) ? 0.0 : h.cost(parent.state(), parent.heuristic(), action, end));
+	}
+
+	/**
+	 * Create the child nodes of a node in a buffer.
+	 * 
+	 * The buffer is cleared and then filled with a child for every action, in
+	 * the order of actions(). A search that keeps one buffer for all of its
+	 * expansions allocates nothing but the children themselves.
+	 * 
+	 * @param parent
+	 *            node to expand
+	 * @param h
+	 *            heuristic to evaluate, or null for none
+	 * @param children
+	 *            buffer to fill with the children
+	 */
+	public void expand(Node parent, Heuristic h, List<Node> children) {
+		List<Action> actions;
+
+		children.clear();
+		actions = actions(parent.state());
+		for (int index = 0; index < actions.size(); index++) {
+			children.add(childNode(parent, actions.get(index), h));
+		}
 	}
 
 	/**
@@ -90,6 +248,22 @@ abstract public class Problem {
 	 * @return initial node of search
 	 */
 	public Node initialNode() {
-		return new Node(null, null, initialState(), 0);
+		return initialNode(null);
+	}
+
+	/**
+	 * Create the node for the root of the search tree, evaluating a heuristic
+	 * for it.
+	 * 
+	 * @param h
+	 *            heuristic to evaluate, or null for none
+	 * @return initial node of search
+	 */
+	public Node initialNode(Heuristic h) {
+		State initial;
+
+		initial = initialState();
+
+		return new Node(null, null, initial, 0, (null == h) ? 0.0 : h.cost(initial));
 	}
 }
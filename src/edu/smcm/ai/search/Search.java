@@ -7,6 +7,11 @@ import java.util.List;
  * essentially a search engine.
  */
 abstract public class Search {
+
+	/**
+	 * The listener told about the progress of searches, or null for none.
+	 */
+	private SearchListener listener;
 	
 	/**
 	 * Search for a solution to the problem using some search algorithm.
@@ -22,5 +27,44 @@ abstract public class Search {
 	 * @return number of nodes generated
 	 */
 	abstract public int nodesGenerated();
+
+	/**
+	 * Attach a listener to be told about the progress of searches.
+	 * 
+	 * @param listener
+	 *            the listener, or null to detach it
+	 */
+	public void listener(SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * The listener told about the progress of searches.
+	 * 
+	 * Subclasses should check for null before reporting an event, so that
+	 * searches without a listener pay nothing for it.
+	 * 
+	 * @return the listener, or null if there is none
+	 */
+	protected SearchListener listener() {
+		return listener;
+	}
+
+	/**
+	 * Report the end of a search to the listener, if there is one.
+	 * 
+	 * This is intended to be used as "return finished(solution);".
+	 * 
+	 * @param solution
+	 *            the solution found, or null if there is none
+	 * @return the solution
+	 */
+	protected List<Action> finished(List<Action> solution) {
+		if (listener != null) {
+			listener.finished(solution);
+		}
+
+		return solution;
+	}
 	
 }
@@ -0,0 +1,91 @@
+package edu.smcm.ai.search;
+
+import java.util.List;
+
+/**
+ * A listener that is told about the progress of a search.
+ * 
+ * All of the methods do nothing, so a listener need only override the events
+ * it is interested in. Searches check for a listener before reporting an
+ * event, so there is next to no cost when none is attached. Nodes reported
+ * should not be kept: depth-first searches change their states in place, and
+ * searches that make no Nodes of their own report every event through one
+ * Node that they overwrite.
+ */
+abstract public class SearchListener {
+
+	/**
+	 * A search has started.
+	 * 
+	 * @param problem
+	 *            problem being solved
+	 */
+	public void started(Problem problem) {
+	}
+
+	/**
+	 * A node has been generated.
+	 * 
+	 * @param node
+	 *            the node generated
+	 */
+	public void generated(Node node) {
+	}
+
+	/**
+	 * A node has been expanded, that is its children are about to be
+	 * generated.
+	 * 
+	 * @param node
+	 *            the node expanded
+	 * @param frontier_size
+	 *            number of nodes on the frontier
+	 * @param explored_size
+	 *            number of nodes explored
+	 */
+	public void expanded(Node node, int frontier_size, int explored_size) {
+	}
+
+	/**
+	 * A state that had already been explored has been reached more cheaply,
+	 * and its new node put back on the frontier.
+	 * 
+	 * @param node
+	 *            the new node for the state
+	 */
+	public void reopened(Node node) {
+	}
+
+	/**
+	 * A generated node has been discarded because its state was already known
+	 * at no greater cost.
+	 * 
+	 * @param node
+	 *            the node discarded
+	 */
+	public void duplicate(Node node) {
+	}
+
+	/**
+	 * An anytime search has found a better solution than any before.
+	 * 
+	 * @param solution
+	 *            the new solution
+	 * @param cost
+	 *            its path cost
+	 * @param bound
+	 *            factor by which it may exceed the optimal cost, or infinity
+	 *            if unknown
+	 */
+	public void improved(List<Action> solution, double cost, double bound) {
+	}
+
+	/**
+	 * A search has finished.
+	 * 
+	 * @param solution
+	 *            the solution found, or null if there is none
+	 */
+	public void finished(List<Action> solution) {
+	}
+}
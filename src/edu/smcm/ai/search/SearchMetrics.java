@@ -0,0 +1,297 @@
+package edu.smcm.ai.search;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import edu.smcm.utils.ExponentialWeightedMovingAverage;
+
+/**
+ * A SearchListener that gathers statistics about a search.
+ * 
+ * The counts of nodes generated, expanded, re-opened and discarded as
+ * duplicates are kept separately, along with the peak sizes of the frontier
+ * and explored set, the wall time, and the bytes allocated by the searching
+ * thread where the JVM can measure them. The rate of expansions is smoothed
+ * with an exponential weighted moving average so that a long search can be
+ * watched while it runs. The statistics are reset when a search starts.
+ */
+public class SearchMetrics extends SearchListener {
+
+	/**
+	 * The number of expansions between updates of the smoothed throughput.
+	 */
+	private static final int sample_interval = 4096;
+
+	/**
+	 * Source of the bytes allocated by a thread, or null if unavailable.
+	 */
+	private static final com.sun.management.ThreadMXBean allocation;
+
+	/**
+	 * Initialise the source of allocation figures.
+	 */
+	static {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		if ((threads instanceof com.sun.management.ThreadMXBean)
+				&& ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+			allocation = (com.sun.management.ThreadMXBean) threads;
+		} else {
+			allocation = null;
+		}
+	}
+
+	/**
+	 * Counter for the number of nodes generated.
+	 */
+	private long generated;
+
+	/**
+	 * Counter for the number of nodes expanded.
+	 */
+	private long expanded;
+
+	/**
+	 * Counter for the number of nodes re-opened.
+	 */
+	private long reopened;
+
+	/**
+	 * Counter for the number of duplicate nodes discarded.
+	 */
+	private long duplicates;
+
+	/**
+	 * Largest frontier seen.
+	 */
+	private int peak_frontier;
+
+	/**
+	 * Largest explored set seen.
+	 */
+	private int peak_explored;
+
+	/**
+	 * Time at which the search started, in nanoseconds.
+	 */
+	private long start_time;
+
+	/**
+	 * Time at which the search finished, in nanoseconds.
+	 */
+	private long finish_time;
+
+	/**
+	 * Bytes allocated by the thread when the search started.
+	 */
+	private long start_bytes;
+
+	/**
+	 * Bytes allocated by the thread when the search finished.
+	 */
+	private long finish_bytes;
+
+	/**
+	 * Time of the last throughput sample, in nanoseconds.
+	 */
+	private long sample_time;
+
+	/**
+	 * Smoothed expansions per second.
+	 */
+	private ExponentialWeightedMovingAverage throughput;
+
+	/**
+	 * A constructor.
+	 */
+	public SearchMetrics() {
+		this.throughput = new ExponentialWeightedMovingAverage(0.2);
+	}
+
+	@Override
+	public void started(Problem problem) {
+		generated = 0;
+		expanded = 0;
+		reopened = 0;
+		duplicates = 0;
+		peak_frontier = 0;
+		peak_explored = 0;
+		throughput = new ExponentialWeightedMovingAverage(0.2);
+		start_bytes = threadAllocatedBytes();
+		finish_bytes = start_bytes;
+		start_time = System.nanoTime();
+		finish_time = start_time;
+		sample_time = start_time;
+	}
+
+	@Override
+	public void generated(Node node) {
+		generated++;
+	}
+
+	@Override
+	public void expanded(Node node, int frontier_size, int explored_size) {
+		long now;
+
+		expanded++;
+		if (frontier_size > peak_frontier) {
+			peak_frontier = frontier_size;
+		}
+		if (explored_size > peak_explored) {
+			peak_explored = explored_size;
+		}
+
+		if (expanded % sample_interval == 0) {
+			now = System.nanoTime();
+			if (now > sample_time) {
+				throughput.update(sample_interval * 1e9 / (now - sample_time));
+			}
+			sample_time = now;
+		}
+	}
+
+	@Override
+	public void reopened(Node node) {
+		reopened++;
+	}
+
+	@Override
+	public void duplicate(Node node) {
+		duplicates++;
+	}
+
+	@Override
+	public void finished(List<Action> solution) {
+		finish_time = System.nanoTime();
+		finish_bytes = threadAllocatedBytes();
+	}
+
+	/**
+	 * Number of nodes generated, including the initial node.
+	 * 
+	 * @return nodes generated
+	 */
+	public long generated() {
+		return generated;
+	}
+
+	/**
+	 * Number of nodes expanded.
+	 * 
+	 * @return nodes expanded
+	 */
+	public long expanded() {
+		return expanded;
+	}
+
+	/**
+	 * Number of explored states put back on the frontier.
+	 * 
+	 * @return nodes re-opened
+	 */
+	public long reopened() {
+		return reopened;
+	}
+
+	/**
+	 * Number of generated nodes discarded as duplicates.
+	 * 
+	 * @return duplicates pruned
+	 */
+	public long duplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * Largest frontier seen.
+	 * 
+	 * @return peak frontier size
+	 */
+	public int peakFrontier() {
+		return peak_frontier;
+	}
+
+	/**
+	 * Largest explored set seen.
+	 * 
+	 * @return peak explored set size
+	 */
+	public int peakExplored() {
+		return peak_explored;
+	}
+
+	/**
+	 * Wall time of the last search.
+	 * 
+	 * @return elapsed time in nanoseconds
+	 */
+	public long wallTime() {
+		return finish_time - start_time;
+	}
+
+	/**
+	 * Mean rate of expansion over the last search.
+	 * 
+	 * @return expansions per second
+	 */
+	public double expansionsPerSecond() {
+		return (wallTime() == 0) ? 0.0 : expanded * 1e9 / wallTime();
+	}
+
+	/**
+	 * Smoothed recent rate of expansion, useful while a search is running.
+	 * 
+	 * @return expansions per second
+	 */
+	public double recentExpansionsPerSecond() {
+		return throughput.value();
+	}
+
+	/**
+	 * Bytes allocated by the searching thread during the last search.
+	 * 
+	 * @return bytes allocated, or -1 if the JVM cannot measure it
+	 */
+	public long allocatedBytes() {
+		return (null == allocation) ? -1 : finish_bytes - start_bytes;
+	}
+
+	/**
+	 * Mean bytes allocated per expansion during the last search.
+	 * 
+	 * @return bytes per expansion, or -1 if the JVM cannot measure it
+	 */
+	public double bytesPerExpansion() {
+		if (null == allocation) {
+			return -1;
+		}
+
+		return (expanded == 0) ? 0.0 : (double) allocatedBytes() / expanded;
+	}
+
+	/**
+	 * A one line summary of the statistics.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format(
+				"generated %d expanded %d reopened %d duplicates %d peak frontier %d peak explored %d time %.3f ms %.0f expansions/s %.1f bytes/expansion",
+				generated, expanded, reopened, duplicates, peak_frontier, peak_explored, wallTime() / 1e6,
+				expansionsPerSecond(), bytesPerExpansion());
+	}
+
+	/**
+	 * Total bytes allocated so far by the current thread.
+	 * 
+	 * @return bytes allocated, or 0 if the JVM cannot measure it
+	 */
+	private static long threadAllocatedBytes() {
+		return (null == allocation) ? 0 : allocation.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
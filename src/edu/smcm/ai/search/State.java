@@ -3,7 +3,47 @@ package edu.smcm.ai.search;
 /**
  * A class to represent a state of the environment in a search problem. There
  * are no methods necessary for the abstract state.
+ * 
+ * States that can be encoded exactly in a single long may say so, in which
+ * case searches keep them in primitive long-keyed tables rather than in
+ * HashMaps. Every state has a 64-bit hash, which parallel searches use to
+ * decide which worker owns it.
  */
 abstract public class State {
 
+	/**
+	 * Determine whether this state can be encoded exactly in a long.
+	 * 
+	 * @return true if key() identifies this state
+	 */
+	public boolean hasKey() {
+		return false;
+	}
+
+	/**
+	 * An exact encoding of this state.
+	 * 
+	 * Two states with keys are equal if and only if their keys are equal.
+	 * 
+	 * @return encoding of this state
+	 */
+	public long key() {
+		throw new UnsupportedOperationException("This state has no key");
+	}
+
+	/**
+	 * A well-mixed 64-bit hash of this state.
+	 * 
+	 * Equal states must have equal hashes. By default hashCode() is spread
+	 * over 64 bits, but states that can do better should override this.
+	 * 
+	 * @return hash of this state
+	 */
+	public long hash64() {
+		long hash;
+
+		hash = hashCode() * 0x9E3779B97F4A7C15L;
+
+		return hash ^ (hash >>> 29);
+	}
 }
@@ -0,0 +1,102 @@
+package edu.smcm.ai.search;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import edu.smcm.utils.LongHashSet;
+
+/**
+ * A set of States, for searches that only need to know whether a State has
+ * been seen.
+ * 
+ * When the States can be encoded in a long only their keys are kept, in a
+ * LongHashSet, so the set holds no reference to a State or a Node and is
+ * cleared in constant time; otherwise a HashSet is used. Which is used is
+ * decided by the first State added after the set is cleared, as in NodeTable.
+ */
+class StateSet {
+
+	/**
+	 * The States, for States without keys.
+	 */
+	private Set<State> states;
+
+	/**
+	 * The keys of the States.
+	 */
+	private LongHashSet keys;
+
+	/**
+	 * Whether the States have keys, or null if not yet known.
+	 */
+	private Boolean keyed;
+
+	/**
+	 * A constructor.
+	 */
+	StateSet() {
+		this.states = new HashSet<State>();
+		this.keys = new LongHashSet();
+		this.keyed = null;
+	}
+
+	/**
+	 * Determine whether a State is in the set.
+	 * 
+	 * @param state
+	 *            state to look for
+	 * @return true if the State is in the set
+	 */
+	boolean contains(State state) {
+		if (null == keyed) {
+			return false;
+		} else if (keyed) {
+			return keys.contains(state.key());
+		} else {
+			return states.contains(state);
+		}
+	}
+
+	/**
+	 * Add a State.
+	 * 
+	 * @param state
+	 *            state to add
+	 * @return true if the State was not already in the set
+	 */
+	boolean add(State state) {
+		if (null == keyed) {
+			keyed = state.hasKey();
+		}
+
+		if (keyed) {
+			return keys.add(state.key());
+		} else {
+			return states.add(state);
+		}
+	}
+
+	/**
+	 * The number of States in the set.
+	 * 
+	 * @return number of States
+	 */
+	int size() {
+		if (null == keyed) {
+			return 0;
+		} else if (keyed) {
+			return keys.size();
+		} else {
+			return states.size();
+		}
+	}
+
+	/**
+	 * Remove all States.
+	 */
+	void clear() {
+		states.clear();
+		keys.clear();
+		keyed = null;
+	}
+}
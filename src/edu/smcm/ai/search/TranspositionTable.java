@@ -0,0 +1,329 @@
+package edu.smcm.ai.search;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size table of what a depth-first search has learned about states.
+ *
+ * For each state the table holds the smallest path cost g at which it was
+ * searched, the iteration of that search, and a backed-up lower bound on the
+ * cost from it to a goal. A state is identified by its key if it has one
+ * (State.hasKey()), otherwise by its 64-bit hash (State.hash64()), in which
+ * case two states may very rarely be confused.
+ *
+ * The size is given in megabytes. Each state may go in one of two slots
+ * chosen by different bits of its hash. When both are taken by other states,
+ * the entry from the older iteration is replaced, or otherwise the one found
+ * deeper in the search, since it saves the least work. The table counts hits,
+ * misses and evictions. Every slot carries the epoch in which it was written,
+ * so clear() takes constant time.
+ */
+public class TranspositionTable {
+
+	/**
+	 * The number of bytes used by each slot.
+	 */
+	private static final int slot_bytes = 32;
+
+	/**
+	 * The state identifying each slot.
+	 */
+	private long[] signatures;
+
+	/**
+	 * The smallest path cost at which each state was searched.
+	 */
+	private double[] costs;
+
+	/**
+	 * The backed-up lower bound on the cost to a goal from each state.
+	 */
+	private double[] bounds;
+
+	/**
+	 * The iteration in which each state was searched.
+	 */
+	private int[] iterations;
+
+	/**
+	 * The epoch in which each slot was written. A slot is only in use if this
+	 * is the current epoch.
+	 */
+	private int[] epochs;
+
+	/**
+	 * The current epoch.
+	 */
+	private int epoch;
+
+	/**
+	 * The number of slots in use.
+	 */
+	private int size;
+
+	/**
+	 * Counter for the number of lookups that found their state.
+	 */
+	private long hits;
+
+	/**
+	 * Counter for the number of lookups that did not find their state.
+	 */
+	private long misses;
+
+	/**
+	 * Counter for the number of entries replaced by another state's.
+	 */
+	private long evictions;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param megabytes
+	 *            memory to use, in megabytes
+	 */
+	public TranspositionTable(int megabytes) {
+		long slots;
+		int capacity;
+
+		if (megabytes < 1) {
+			throw new IllegalArgumentException("At least one megabyte is needed");
+		}
+
+		slots = ((long) megabytes << 20) / slot_bytes;
+		capacity = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+
+		this.signatures = new long[capacity];
+		this.costs = new double[capacity];
+		this.bounds = new double[capacity];
+		this.iterations = new int[capacity];
+		this.epochs = new int[capacity];
+		this.epoch = 1;
+	}
+
+	/**
+	 * The number of slots.
+	 *
+	 * @return number of states the table can hold
+	 */
+	public int capacity() {
+		return signatures.length;
+	}
+
+	/**
+	 * The number of slots in use.
+	 *
+	 * @return number of states held
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * The number of lookups that found their state.
+	 *
+	 * @return number of hits
+	 */
+	public long hits() {
+		return hits;
+	}
+
+	/**
+	 * The number of lookups that did not find their state.
+	 *
+	 * @return number of misses
+	 */
+	public long misses() {
+		return misses;
+	}
+
+	/**
+	 * The number of entries replaced by another state's.
+	 *
+	 * @return number of evictions
+	 */
+	public long evictions() {
+		return evictions;
+	}
+
+	/**
+	 * Remove all entries in constant time and reset the counters.
+	 */
+	public void clear() {
+		size = 0;
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+		epoch++;
+		if (epoch == Integer.MAX_VALUE) {
+			Arrays.fill(epochs, 0);
+			epoch = 1;
+		}
+	}
+
+	/**
+	 * The value that identifies a state in the table.
+	 *
+	 * @param state
+	 *            the state
+	 * @return its key, or its 64-bit hash if it has none
+	 */
+	public static long signature(State state) {
+		return state.hasKey() ? state.key() : state.hash64();
+	}
+
+	/**
+	 * Find the slot holding a state.
+	 *
+	 * @param signature
+	 *            signature of the state
+	 * @return the slot, or -1 if the state is not in the table
+	 */
+	public int find(long signature) {
+		int first;
+		int second;
+
+		first = first(signature);
+		if (epochs[first] == epoch && signatures[first] == signature) {
+			hits++;
+			return first;
+		}
+
+		second = second(signature);
+		if (epochs[second] == epoch && signatures[second] == signature) {
+			hits++;
+			return second;
+		}
+
+		misses++;
+
+		return -1;
+	}
+
+	/**
+	 * The smallest path cost at which the state in a slot was searched.
+	 *
+	 * @param slot
+	 *            a slot returned by find()
+	 * @return path cost
+	 */
+	public double cost(int slot) {
+		return costs[slot];
+	}
+
+	/**
+	 * The lower bound on the cost to a goal from the state in a slot.
+	 *
+	 * @param slot
+	 *            a slot returned by find()
+	 * @return backed-up lower bound
+	 */
+	public double bound(int slot) {
+		return bounds[slot];
+	}
+
+	/**
+	 * The iteration in which the state in a slot was searched.
+	 *
+	 * @param slot
+	 *            a slot returned by find()
+	 * @return iteration
+	 */
+	public int iteration(int slot) {
+		return iterations[slot];
+	}
+
+	/**
+	 * Record the search of a state.
+	 *
+	 * If the state is already in the table its entry is updated, keeping the
+	 * larger of the two bounds.
+	 *
+	 * @param signature
+	 *            signature of the state
+	 * @param cost
+	 *            path cost at which it was searched
+	 * @param bound
+	 *            lower bound on the cost to a goal from it
+	 * @param iteration
+	 *            iteration of the search
+	 */
+	public void store(long signature, double cost, double bound, int iteration) {
+		int first;
+		int second;
+		int slot;
+
+		first = first(signature);
+		second = second(signature);
+
+		if (epochs[first] == epoch && signatures[first] == signature) {
+			slot = first;
+			bound = Math.max(bound, bounds[slot]);
+		} else if (epochs[second] == epoch && signatures[second] == signature) {
+			slot = second;
+			bound = Math.max(bound, bounds[slot]);
+		} else {
+			if (epochs[first] != epoch) {
+				slot = first;
+			} else if (epochs[second] != epoch) {
+				slot = second;
+			} else if (iterations[first] != iterations[second]) {
+				slot = (iterations[first] < iterations[second]) ? first : second;
+			} else {
+				slot = (costs[first] >= costs[second]) ? first : second;
+			}
+
+			if (epochs[slot] == epoch) {
+				evictions++;
+			} else {
+				size++;
+			}
+		}
+
+		signatures[slot] = signature;
+		costs[slot] = cost;
+		bounds[slot] = bound;
+		iterations[slot] = iteration;
+		epochs[slot] = epoch;
+	}
+
+	/**
+	 * The first slot a state may go in.
+	 *
+	 * @param signature
+	 *            signature of the state
+	 * @return a slot
+	 */
+	private int first(long signature) {
+		return (int) mix(signature) & (signatures.length - 1);
+	}
+
+	/**
+	 * The second slot a state may go in.
+	 *
+	 * @param signature
+	 *            signature of the state
+	 * @return a slot
+	 */
+	private int second(long signature) {
+		return (int) (mix(signature) >>> 32) & (signatures.length - 1);
+	}
+
+	/**
+	 * Spread the bits of a signature. This is the finalisation step of
+	 * MurmurHash3.
+	 *
+	 * @param signature
+	 *            the signature
+	 * @return its hash
+	 */
+	private static long mix(long signature) {
+		signature ^= signature >>> 33;
+		signature *= 0xff51afd7ed558ccdL;
+		signature ^= signature >>> 33;
+		signature *= 0xc4ceb9fe1a85ec53L;
+		signature ^= signature >>> 33;
+
+		return signature;
+	}
+}
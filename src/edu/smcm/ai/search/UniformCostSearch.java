@@ -1,47 +1,80 @@
 package edu.smcm.ai.search;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.PriorityQueue;
-import java.util.Set;
 
 /**
  * Implementation of the Uniform Cost Search. See Russell and Norvig, Artificial
  * Intelligence: A Modern Approach, Third Edition, p 84. The frontier is
- * represented using both a PriorityQueue and a Map&lt;State, Node&gt; to make
- * determining membership quicker.
+ * represented using a FrontierQueue, an indexed heap that gives O(1)
+ * membership and O(log n) replacement of a Node by a cheaper one. Explored
+ * Nodes are kept so that a state reached again more cheaply is re-opened,
+ * which keeps A* optimal with admissible but inconsistent heuristics such as
+ * additive pattern databases. Both the frontier index and the explored table
+ * keep States that encode to a long in primitive open-addressing tables,
+ * which are cleared in constant time between searches. When the Problem
+ * numbers its States densely and there are few enough of them, both may
+ * instead be arrays indexed by that number, with no hashing at all (see
+ * denseTables()).
  */
 public class UniformCostSearch extends Search {
 
 	/**
-	 * Set of states explored so far.
+	 * Nodes for the states explored so far.
 	 */
-	private Set<State> explored;
+	private NodeTable explored;
 
 	/**
-	 * A Map that associates States with Nodes
+	 * The queue of Nodes in the frontier, indexed by State
 	 */
-	private Map<State, Node> frontier_map;
+	private FrontierQueue frontier_queue;
 
 	/**
-	 * The queue of Nodes in the frontier
+	 * The heuristic evaluated for every Node generated, or null for none
 	 */
-	private PriorityQueue<Node> frontier_queue;
+	private Heuristic heuristic;
 
 	/**
 	 * Counter for the number of nodes generated
 	 */
 	private int nodes_generated;
 
+	/**
+	 * Buffer for the children of the Node being expanded, reused for every
+	 * expansion.
+	 */
+	private List<Node> children;
+
+	/**
+	 * Whether the tables are arrays indexed by State when the Problem allows.
+	 */
+	private boolean dense;
+
 	/**
 	 * Default Constructor.
 	 */
 	public UniformCostSearch() {
-		this.explored = new HashSet<State>();
-		this.frontier_map = new HashMap<State, Node>();
-		this.frontier_queue = new PriorityQueue<Node>();
+		this.explored = new NodeTable();
+		this.frontier_queue = new FrontierQueue(new CostComparator());
+		this.children = new ArrayList<Node>(4);
+		this.dense = true;
+	}
+
+	/**
+	 * Choose whether the frontier index and explored table are arrays
+	 * indexed by State when the Problem numbers its States densely.
+	 * 
+	 * An array pays for itself when the search visits a good part of the
+	 * state space, as a blind search does, so this is the default. A search
+	 * guided by a good heuristic visits so few States that a small hash table
+	 * is faster than an array with one slot for every State, since the hash
+	 * table stays in the cache.
+	 * 
+	 * @param dense
+	 *            true to use arrays when the Problem allows
+	 */
+	public void denseTables(boolean dense) {
+		this.dense = dense;
 	}
 
 	/**
@@ -53,12 +86,27 @@ public class UniformCostSearch extends Search {
 	 * @param frontier_queue
 	 *            new frontier queue
 	 */
-	protected void frontierQueue(PriorityQueue<Node> frontier_queue) {
+	protected void frontierQueue(FrontierQueue frontier_queue) {
 		this.frontier_queue = frontier_queue;
 	}
 
+	/**
+	 * Set the heuristic evaluated when Nodes are generated.
+	 * 
+	 * The value is cached in each Node so that a frontier queue ordered with
+	 * a HeuristicComparator never needs to recompute it.
+	 * 
+	 * @param heuristic
+	 *            heuristic to evaluate, or null for none
+	 */
+	protected void heuristic(Heuristic heuristic) {
+		this.heuristic = heuristic;
+	}
+
 	/**
 	 * Get the number of nodes generated in this search.
+	 * 
+	 * Every child created counts, whether or not it is put on the frontier.
 	 *
 	 * @return number of nodes generated
 	 */
@@ -76,7 +124,8 @@ public class UniformCostSearch extends Search {
 	 * 
 	 * Pseudocode for this method can be found in Russell and Norvig, Artificial
 	 * Intelligence: A Modern Approach, Third Edition, p. 84. Note that the
-	 * frontier is made up of both a priority queue and a has table.
+	 * frontier is an indexed priority queue, so a child that reaches a
+	 * frontier state more cheaply replaces the existing Node in place.
 	 */
 	/*
 	 * (non-Javadoc)
@@ -84,46 +133,79 @@ public class UniformCostSearch extends Search {
 	 * @see edu.smcm.ai.search.Search#search(edu.smcm.ai.search.Problem)
 	 */
 	public List<Action> search(Problem problem) {
+		SearchListener listener = listener();
 		frontier_queue.clear();
-		frontier_map.clear();
+		explored.clear();
+		if (dense) {
+			frontier_queue.index(problem);
+			explored.index(problem);
+		}
 		Node child;
+		Node existing;
 		
-		Node node = new Node(null, null, problem.initialState(), 0);
+		Node node = problem.initialNode(heuristic);
 		nodes_generated = 1;
 		frontier_queue.add(node);
-		frontier_map.put(node.state(), node);
+		
+		if (listener != null) {
+			listener.started(problem);
+			listener.generated(node);
+		}
 		
 		do {
 			
 			//System.out.println("cost: " + node.cost());
 			
 			if (frontier_queue.isEmpty())
-				return null;
+				return finished(null);
 			
 			node = frontier_queue.remove();
-			nodes_generated++;
-			frontier_map.remove(node);
 			
 			if (problem.isGoalState(node.state()))
-				return node.solution();
+				return finished(node.solution());
+			
+			explored.put(node);
 			
-			explored.add(node.state());
+			if (listener != null)
+				listener.expanded(node, frontier_queue.size(), explored.size());
 			
 			//System.out.println(node.state().toString());
 			//System.out.println(problem.actions(node.state()));
 			
-			for (Action e : problem.actions(node.state())){
+			problem.expand(node, heuristic, children);
+			
+			for (int index = 0; index < children.size(); index++) {
 				
-				child = problem.childNode(node, e);
+				child = children.get(index);
+				nodes_generated++;
 				
-				if ((!frontier_queue.contains(child.state())) && (!explored.contains(child.state()))) {
+				if (listener != null)
+					listener.generated(child);
+				
+				existing = frontier_queue.get(child.state());
+				
+				if (existing != null) {
+					
+					if (existing.cost() > child.cost()) {
+						frontier_queue.decrease(child);
+					} else if (listener != null) {
+						listener.duplicate(child);
+					}
 					
-					frontier_queue.add(child);
-					frontier_map.put(child.state(), child);
+				} else {
 					
-				} else if ((frontier_queue.contains(child.state()) && frontier_map.get(child).cost() > child.cost())) {
+					existing = explored.get(child.state());
 					
-					frontier_map.put(child.state(), child);
+					if (existing == null) {
+						frontier_queue.add(child);
+					} else if (existing.cost() > child.cost()) {
+						explored.remove(child.state());
+						frontier_queue.add(child);
+						if (listener != null)
+							listener.reopened(child);
+					} else if (listener != null) {
+						listener.duplicate(child);
+					}
 					
 				}
 				
@@ -0,0 +1,161 @@
+package edu.smcm.ai.sliding_block;
+
+import java.io.File;
+import java.io.IOException;
+
+import edu.smcm.ai.search.Heuristic;
+import edu.smcm.ai.search.State;
+
+/**
+ * A heuristic that adds together the values of disjoint pattern databases.
+ *
+ * Because each pattern database only counts moves of its own tiles, the sum
+ * over patterns that share no tiles is admissible. It dominates the Manhattan
+ * distance when the patterns are well chosen. See Korf and Felner, Disjoint
+ * Pattern Database Heuristics, Artificial Intelligence 134, 2002.
+ *
+ * NOTE: like PatternDatabase, this heuristic is not thread safe.
+ */
+public class AdditivePatternDatabase extends Heuristic {
+
+	/**
+	 * The pattern databases to be added.
+	 */
+	private PatternDatabase[] databases;
+
+	/**
+	 * Constructor using the default partition for the size of puzzle.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param directory
+	 *            directory in which the tables are kept
+	 * @throws IOException
+	 *             if a table cannot be read or written
+	 */
+	public AdditivePatternDatabase(int size, File directory) throws IOException {
+		this(size, partition(size), directory);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * Each table is loaded from the directory, or built and saved there if it
+	 * is not yet present.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param partition
+	 *            disjoint sets of tiles, one per pattern database
+	 * @param directory
+	 *            directory in which the tables are kept
+	 * @throws IOException
+	 *             if a table cannot be read or written
+	 */
+	public AdditivePatternDatabase(int size, int[][] partition, File directory) throws IOException {
+		boolean[] used;
+
+		used = new boolean[size * size];
+		for (int[] tiles : partition) {
+			for (int tile : tiles) {
+				if (tile <= 0 || tile >= size * size || used[tile]) {
+					throw new IllegalArgumentException("Patterns must be disjoint sets of tiles");
+				}
+				used[tile] = true;
+			}
+		}
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create " + directory);
+		}
+
+		databases = new PatternDatabase[partition.length];
+		for (int index = 0; index < partition.length; index++) {
+			databases[index] = PatternDatabase.open(size, partition[index], new File(directory, fileName(size, partition[index])));
+		}
+	}
+
+	/**
+	 * The default partition of the tiles for a size of puzzle.
+	 *
+	 * The 8-puzzle is split 4-4 and the 15-puzzle 6-6-3. Larger puzzles are
+	 * split into patterns of as many tiles, up to six, as PatternDatabase can
+	 * build: its search ranks the pattern tiles and the blank, so a pattern of
+	 * k tiles on n positions needs n! / (n - k - 1)! bytes, which must fit in
+	 * an array. That is five tiles on the 24-puzzle and 35-puzzle and four on
+	 * the 48-puzzle. Patterns are runs of consecutive tiles, which are close
+	 * together in the goal.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @return disjoint sets of tiles covering every tile
+	 */
+	public static int[][] partition(int size) {
+		int tiles;
+		int width;
+		int[][] result;
+
+		tiles = size * size - 1;
+		if (size <= 3) {
+			width = 4;
+		} else {
+			width = 6;
+			while (width > 1 && PatternDatabase.count(size * size, width + 1) > PatternDatabase.table_limit) {
+				width--;
+			}
+		}
+
+		result = new int[(tiles + width - 1) / width][];
+		for (int index = 0; index < result.length; index++) {
+			result[index] = new int[Math.min(width, tiles - index * width)];
+			for (int slot = 0; slot < result[index].length; slot++) {
+				result[index][slot] = index * width + slot + 1;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Sum of the pattern database values.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State state) {
+
+		SlidingBlockState actual = (SlidingBlockState) state;
+
+		int sum = 0;
+
+		for (PatternDatabase database : databases) {
+			sum += database.lookup(actual);
+		}
+
+		return sum;
+	}
+
+	/**
+	 * The name of the file holding a table.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @return name of the file
+	 */
+	private static String fileName(int size, int[] tiles) {
+		StringBuilder result;
+
+		result = new StringBuilder("pdb-" + size + "x" + size);
+		for (int tile : tiles) {
+			result.append('-').append(tile);
+		}
+		result.append(".bin");
+
+		return result.toString();
+	}
+}
@@ -0,0 +1,385 @@
+package edu.smcm.ai.sliding_block;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import edu.smcm.ai.search.Action;
+
+/**
+ * The shape of a Sliding Block Puzzle board and tables worked out from it.
+ *
+ * A board has some number of rows and columns, and position (row, column) has
+ * index row * columns + column. In the goal tile t is at index t, with the
+ * blank (tile 0) at the top left. Everything that would otherwise need a
+ * division or a remainder by the width of the board is looked up instead: the
+ * row and column of each index, the Manhattan distance of each tile from its
+ * goal position at each index, the legal actions for each position of the
+ * blank and where each action moves the blank to.
+ *
+ * There is one geometry for each shape, made when first asked for with of(),
+ * and it is shared by every state, problem and heuristic for boards of that
+ * shape. Geometries are immutable, so they may be used by any thread, and two
+ * boards have the same shape exactly when their geometries are the same
+ * object.
+ */
+public class BoardGeometry {
+
+	/**
+	 * The largest number of positions on a board.
+	 */
+	public static final int tile_limit = 256;
+
+	/**
+	 * The largest number of positions whose permutations can be ranked in a
+	 * long, since 21! is more than Long.MAX_VALUE.
+	 */
+	static final int rank_limit = 20;
+
+	/**
+	 * The number of actions, one for each ActionType.
+	 */
+	private static final int directions = 4;
+
+	/**
+	 * The geometries made so far, found at rows * (tile_limit + 1) + columns.
+	 */
+	private static final ConcurrentHashMap<Integer, BoardGeometry> geometries;
+
+	/**
+	 * Static initialisation block.
+	 */
+	static {
+		geometries = new ConcurrentHashMap<Integer, BoardGeometry>();
+	}
+
+	/**
+	 * The number of rows.
+	 */
+	private int rows;
+
+	/**
+	 * The number of columns.
+	 */
+	private int columns;
+
+	/**
+	 * The number of positions, rows * columns.
+	 */
+	private int tiles;
+
+	/**
+	 * The row of each index.
+	 */
+	private int[] row;
+
+	/**
+	 * The column of each index.
+	 */
+	private int[] column;
+
+	/**
+	 * The Manhattan distance of each tile from its goal position when at each
+	 * index, found at tile * tiles + index. It is zero for the blank.
+	 */
+	private byte[] distances;
+
+	/**
+	 * The index the blank moves to for each position of the blank and each
+	 * action, found at blank * 4 + ordinal, or -1 if the action is illegal.
+	 */
+	private int[] targets;
+
+	/**
+	 * The legal actions for each position of the blank. The lists are
+	 * unmodifiable, so they can be handed out without copying.
+	 */
+	private List<Action>[] moves;
+
+	/**
+	 * A constructor, used only by of().
+	 *
+	 * @param rows
+	 *            number of rows
+	 * @param columns
+	 *            number of columns
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private BoardGeometry(int rows, int columns) {
+		List<Action> actions;
+
+		this.rows = rows;
+		this.columns = columns;
+		this.tiles = rows * columns;
+		this.row = new int[tiles];
+		this.column = new int[tiles];
+		this.distances = new byte[tiles * tiles];
+		this.targets = new int[tiles * directions];
+		this.moves = new List[tiles];
+
+		for (int index = 0; index < tiles; index++) {
+			row[index] = index / columns;
+			column[index] = index % columns;
+		}
+
+		for (int tile = 1; tile < tiles; tile++) {
+			for (int index = 0; index < tiles; index++) {
+				distances[tile * tiles + index] = (byte) (Math.abs(row[tile] - row[index])
+						+ Math.abs(column[tile] - column[index]));
+			}
+		}
+
+		// The actions are listed in the order left, right, up, down
+		for (int blank = 0; blank < tiles; blank++) {
+			targets[blank * directions + 0] = (column[blank] != 0) ? blank - 1 : -1;
+			targets[blank * directions + 1] = (column[blank] != columns - 1) ? blank + 1 : -1;
+			targets[blank * directions + 2] = (row[blank] != 0) ? blank - columns : -1;
+			targets[blank * directions + 3] = (row[blank] != rows - 1) ? blank + columns : -1;
+
+			actions = new ArrayList<Action>(directions);
+			if (column[blank] != 0) {
+				actions.add(SlidingBlockAction.left);
+			}
+			if (column[blank] != columns - 1) {
+				actions.add(SlidingBlockAction.right);
+			}
+			if (row[blank] != 0) {
+				actions.add(SlidingBlockAction.up);
+			}
+			if (row[blank] != rows - 1) {
+				actions.add(SlidingBlockAction.down);
+			}
+			moves[blank] = Collections.unmodifiableList(actions);
+		}
+	}
+
+	/**
+	 * The geometry of a board, made the first time it is asked for.
+	 *
+	 * @param rows
+	 *            number of rows
+	 * @param columns
+	 *            number of columns
+	 * @return the shared geometry for that shape
+	 */
+	public static BoardGeometry of(int rows, int columns) {
+		if (rows < 1 || columns < 1 || rows * columns > tile_limit) {
+			throw new IllegalArgumentException("Unsupported board: " + rows + "x" + columns);
+		}
+
+		return geometries.computeIfAbsent(rows * (tile_limit + 1) + columns, shape -> new BoardGeometry(rows,
+				columns));
+	}
+
+	/**
+	 * The geometry of a square board.
+	 *
+	 * @param size
+	 *            length of the sides
+	 * @return the shared geometry for that shape
+	 */
+	public static BoardGeometry of(int size) {
+		return of(size, size);
+	}
+
+	/**
+	 * The number of rows.
+	 *
+	 * @return number of rows
+	 */
+	public int rows() {
+		return rows;
+	}
+
+	/**
+	 * The number of columns.
+	 *
+	 * @return number of columns
+	 */
+	public int columns() {
+		return columns;
+	}
+
+	/**
+	 * The number of positions, including the one for the blank.
+	 *
+	 * @return rows * columns
+	 */
+	public int tiles() {
+		return tiles;
+	}
+
+	/**
+	 * The number of arrangements of the tiles, solvable or not.
+	 * 
+	 * This is the number of ranks of SlidingBlockState.rank(), which needs a
+	 * long to hold the ranks of boards of up to 20 tiles.
+	 * 
+	 * @return tiles()!, or 0 if the board has more than 20 tiles
+	 */
+	public long permutations() {
+		long result;
+
+		if (tiles > rank_limit) {
+			return 0;
+		}
+
+		result = 1;
+		for (int count = 2; count <= tiles; count++) {
+			result = result * count;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Determine whether the board is square.
+	 *
+	 * @return true if there are as many rows as columns
+	 */
+	public boolean isSquare() {
+		return rows == columns;
+	}
+
+	/**
+	 * The row of a position.
+	 *
+	 * @param index
+	 *            index of the position
+	 * @return its row, counted from the top
+	 */
+	public int row(int index) {
+		return row[index];
+	}
+
+	/**
+	 * The column of a position.
+	 *
+	 * @param index
+	 *            index of the position
+	 * @return its column, counted from the left
+	 */
+	public int column(int index) {
+		return column[index];
+	}
+
+	/**
+	 * The index of a position.
+	 *
+	 * @param row
+	 *            row of the position
+	 * @param column
+	 *            column of the position
+	 * @return row * columns() + column
+	 */
+	public int index(int row, int column) {
+		return row * columns + column;
+	}
+
+	/**
+	 * The position of a tile in the goal.
+	 *
+	 * @param tile
+	 *            the tile, 0 being the blank
+	 * @return index of its goal position
+	 */
+	public int goal(int tile) {
+		return tile;
+	}
+
+	/**
+	 * The Manhattan distance of a tile from its goal position.
+	 *
+	 * @param tile
+	 *            the tile
+	 * @param index
+	 *            index of the position of the tile
+	 * @return the distance, zero for the blank
+	 */
+	public int distance(int tile, int index) {
+		return distances[tile * tiles + index] & 0xFF;
+	}
+
+	/**
+	 * The Manhattan distance between two positions.
+	 *
+	 * @param from
+	 *            index of one position
+	 * @param to
+	 *            index of the other position
+	 * @return number of rows plus number of columns between them
+	 */
+	public int between(int from, int to) {
+		return Math.abs(row[from] - row[to]) + Math.abs(column[from] - column[to]);
+	}
+
+	/**
+	 * The legal actions for a position of the blank.
+	 *
+	 * @param blank
+	 *            index of the blank
+	 * @return unmodifiable list of legal actions
+	 */
+	public List<Action> actions(int blank) {
+		return moves[blank];
+	}
+
+	/**
+	 * Where an action moves the blank to.
+	 *
+	 * This is also where the tile that slides was before the action.
+	 *
+	 * @param blank
+	 *            index of the blank
+	 * @param action
+	 *            the action
+	 * @return index of the blank after the action, or -1 if it is illegal
+	 */
+	public int target(int blank, SlidingBlockAction action) {
+		return targets[blank * directions + action.value().ordinal()];
+	}
+
+	/**
+	 * Where the blank was before an action.
+	 *
+	 * This is where the tile that slid now is.
+	 *
+	 * @param blank
+	 *            index of the blank after the action
+	 * @param action
+	 *            the action
+	 * @return index of the blank before the action, or -1 if the action could
+	 *         not have led here
+	 */
+	public int source(int blank, SlidingBlockAction action) {
+		// Opposite actions have ordinals that differ only in the lowest bit
+		return targets[blank * directions + (action.value().ordinal() ^ 1)];
+	}
+
+	/**
+	 * Where the blank would move in a direction.
+	 *
+	 * @param blank
+	 *            index of the blank
+	 * @param direction
+	 *            ordinal of an ActionType: 0 left, 1 right, 2 up, 3 down
+	 * @return index of the blank after the move, or -1 if it is off the board
+	 */
+	public int target(int blank, int direction) {
+		return targets[blank * directions + direction];
+	}
+
+	/**
+	 * A description of the shape.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return rows + "x" + columns;
+	}
+}
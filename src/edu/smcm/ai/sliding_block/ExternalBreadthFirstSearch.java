@@ -0,0 +1,614 @@
+package edu.smcm.ai.sliding_block;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import edu.smcm.ai.search.Action;
+
+/**
+ * An external-memory breadth-first search of the Sliding Block Puzzle.
+ *
+ * Every state reachable from the initial state is enumerated, layer by layer,
+ * to find how many states there are at each distance. The layers are kept on
+ * disk, not in memory. A layer file holds the sorted keys of its states, each
+ * stored as a variable-length delta from the one before. To make the next
+ * layer, the current layer is streamed in and the keys of the successors are
+ * collected in a fixed buffer. When the buffer is full it is sorted and
+ * written out as a run. The runs are then merged, dropping duplicates and any
+ * state in the current or previous layer. Every move can be undone, so a
+ * successor can be in no other earlier layer. See Korf, Linear-Time Disk-Based
+ * Implicit Graph Search, Journal of the ACM 55(6), 2008.
+ *
+ * Memory is the fixed buffer plus an I/O buffer for each file open at once.
+ * If there are too many runs they are merged in several passes, so the
+ * number of open files is bounded too. Neither depends on the number of
+ * states. A layer is written to a temporary file and renamed only once it is
+ * complete and on disk. After a crash, the search resumes from the last
+ * complete layer.
+ *
+ * Keys are compared as unsigned numbers; internally the sign bit is flipped
+ * so that ordinary signed comparisons and sorting can be used. NOTE: only
+ * boards of up to 16 tiles, such as 4x4 or 3x5, have keys, so larger boards
+ * are not supported.
+ */
+public class ExternalBreadthFirstSearch {
+
+	/**
+	 * Magic number at the start of every layer and run file.
+	 */
+	private static final int magic = 0x58424653; // "XBFS"
+
+	/**
+	 * Length of the header of every file: magic, shape, depth and count.
+	 */
+	private static final int header_length = 20;
+
+	/**
+	 * Size of the I/O buffer of each open file.
+	 */
+	private static final int io_buffer_size = 1 << 16;
+
+	/**
+	 * The largest number of runs merged at once.
+	 */
+	private static final int fan_in = 64;
+
+	/**
+	 * Depth recorded in the header of a run, which is not a layer.
+	 */
+	private static final int run_depth = -1;
+
+	/**
+	 * A sequential writer of a file of strictly increasing keys.
+	 *
+	 * A key equal to the previous one is dropped, so the writer also removes
+	 * duplicates from sorted input.
+	 */
+	private static class KeyWriter implements Closeable {
+
+		private FileChannel channel;
+		private ByteBuffer buffer;
+		private int shape;
+		private int depth;
+		private long count;
+		private long previous;
+
+		public KeyWriter(File file, int shape, int depth) throws IOException {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			this.buffer = ByteBuffer.allocateDirect(io_buffer_size);
+			this.shape = shape;
+			this.depth = depth;
+			this.count = 0;
+			this.previous = Long.MIN_VALUE;
+			channel.position(header_length);
+		}
+
+		public long count() {
+			return count;
+		}
+
+		public void write(long value) throws IOException {
+			long delta;
+
+			if (count > 0 && value == previous) {
+				return;
+			}
+
+			if (buffer.remaining() < 10) {
+				drain();
+			}
+
+			// Unsigned variable-length encoding, seven bits a byte
+			delta = value - previous;
+			while ((delta & ~0x7FL) != 0) {
+				buffer.put((byte) ((delta & 0x7F) | 0x80));
+				delta >>>= 7;
+			}
+			buffer.put((byte) delta);
+
+			previous = value;
+			count++;
+		}
+
+		@Override
+		public void close() throws IOException {
+			ByteBuffer header;
+
+			try {
+				drain();
+				header = ByteBuffer.allocate(header_length);
+				header.putInt(magic).putInt(shape).putInt(depth).putLong(count).flip();
+				while (header.hasRemaining()) {
+					channel.write(header, header.position());
+				}
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		}
+
+		private void drain() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+	}
+
+	/**
+	 * A sequential reader of a file of keys.
+	 */
+	private static class KeyReader implements Closeable {
+
+		private FileChannel channel;
+		private ByteBuffer buffer;
+		private long remaining;
+		private long current;
+		private boolean end_of_file;
+
+		public KeyReader(File file, int shape) throws IOException {
+			this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			this.buffer = ByteBuffer.allocateDirect(io_buffer_size);
+			this.buffer.flip();
+			this.current = Long.MIN_VALUE;
+			this.end_of_file = false;
+
+			try {
+				fill();
+				if (buffer.remaining() < header_length || buffer.getInt() != magic) {
+					throw new IOException("Not a layer file: " + file);
+				}
+				if (buffer.getInt() != shape) {
+					throw new IOException("Layer file for a different shape of board: " + file);
+				}
+				buffer.getInt();
+				this.remaining = buffer.getLong();
+			} catch (IOException exception) {
+				channel.close();
+				throw exception;
+			}
+		}
+
+		public long remaining() {
+			return remaining;
+		}
+
+		public long current() {
+			return current;
+		}
+
+		public boolean advance() throws IOException {
+			long delta;
+			int shift;
+			byte next;
+
+			if (remaining == 0) {
+				return false;
+			}
+
+			if (buffer.remaining() < 10 && !end_of_file) {
+				fill();
+			}
+
+			delta = 0;
+			shift = 0;
+			do {
+				next = buffer.get();
+				delta |= (long) (next & 0x7F) << shift;
+				shift += 7;
+			} while (next < 0);
+
+			current += delta;
+			remaining--;
+
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+		}
+
+		private void fill() throws IOException {
+			buffer.compact();
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					end_of_file = true;
+					break;
+				}
+			}
+			buffer.flip();
+		}
+	}
+
+	/**
+	 * The problem whose states are enumerated.
+	 */
+	private SlidingBlockProblem problem;
+
+	/**
+	 * The shape of the board, rows * BoardGeometry.tile_limit + columns, which
+	 * is written in the header of every file.
+	 */
+	private int shape;
+
+	/**
+	 * The directory holding the layer and run files.
+	 */
+	private File directory;
+
+	/**
+	 * Keys of successors not yet written to a run.
+	 */
+	private long[] buffer;
+
+	/**
+	 * The number of keys in the buffer.
+	 */
+	private int buffered;
+
+	/**
+	 * The number used in the name of the next run file.
+	 */
+	private int next_run;
+
+	/**
+	 * A constructor with a buffer of a million states.
+	 *
+	 * @param problem
+	 *            problem whose initial state is the root of the search
+	 * @param directory
+	 *            directory for the layer files
+	 */
+	public ExternalBreadthFirstSearch(SlidingBlockProblem problem, File directory) {
+		this(problem, directory, 1 << 20);
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param problem
+	 *            problem whose initial state is the root of the search
+	 * @param directory
+	 *            directory for the layer files
+	 * @param buffer_states
+	 *            number of states buffered in memory before a run is written
+	 */
+	public ExternalBreadthFirstSearch(SlidingBlockProblem problem, File directory, int buffer_states) {
+		BoardGeometry geometry;
+
+		if (!problem.initialState().hasKey()) {
+			throw new UnsupportedOperationException("External search supports boards of up to 16 tiles");
+		}
+
+		this.problem = problem;
+		geometry = problem.initialState().geometry();
+		this.shape = geometry.rows() * BoardGeometry.tile_limit + geometry.columns();
+		this.directory = directory;
+		this.buffer = new long[buffer_states];
+	}
+
+	/**
+	 * Enumerate the states, resuming from any complete layers on disk.
+	 *
+	 * Layers deeper than max_depth are neither made nor counted, even if an
+	 * earlier run left them on disk. Layers are only resumed if layer 0 holds
+	 * exactly the initial state of this problem.
+	 *
+	 * @param max_depth
+	 *            deepest layer to make, at least 0
+	 * @return number of states in each layer up to max_depth, the initial
+	 *         state's first
+	 * @throws IOException
+	 *             if the layer files cannot be read or written, or were made
+	 *             from another initial state
+	 */
+	public List<Long> run(int max_depth) throws IOException {
+		List<Long> counts;
+		KeyWriter root;
+		int depth;
+
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Cannot create " + directory);
+		}
+		removeLeftovers();
+
+		counts = new ArrayList<Long>();
+		for (depth = 0; depth <= max_depth && layer(depth).exists(); depth++) {
+			try (KeyReader reader = new KeyReader(layer(depth), shape)) {
+				counts.add(reader.remaining());
+				if (depth == 0 && (reader.remaining() != 1 || !reader.advance()
+						|| reader.current() != flip(problem.initialState().key()))) {
+					throw new IOException("Layers in " + directory + " were made from another initial state");
+				}
+			}
+		}
+
+		if (counts.isEmpty()) {
+			root = new KeyWriter(temporary(0), shape, 0);
+			root.write(flip(problem.initialState().key()));
+			root.close();
+			commit(0);
+			counts.add(1L);
+		}
+
+		while (counts.size() <= max_depth && counts.get(counts.size() - 1) > 0) {
+			counts.add(expand(counts.size() - 1));
+		}
+
+		if (counts.get(counts.size() - 1) == 0) {
+			counts.remove(counts.size() - 1);
+		}
+
+		return counts;
+	}
+
+	/**
+	 * Make the layer after a layer.
+	 *
+	 * @param depth
+	 *            depth of the layer to expand
+	 * @return number of states in the new layer
+	 * @throws IOException
+	 *             if the files cannot be read or written
+	 */
+	private long expand(int depth) throws IOException {
+		List<File> runs;
+		List<File> exclusions;
+		SlidingBlockState state;
+		long count;
+
+		runs = new ArrayList<File>();
+		buffered = 0;
+
+		try (KeyReader reader = new KeyReader(layer(depth), shape)) {
+			while (reader.advance()) {
+				state = problem.decode(flip(reader.current()));
+				for (Action action : problem.actions(state)) {
+					problem.apply(state, action);
+					if (buffered == buffer.length) {
+						runs.add(spill());
+					}
+					buffer[buffered++] = flip(state.key());
+					problem.undo(state, action);
+				}
+			}
+		}
+		if (buffered > 0) {
+			runs.add(spill());
+		}
+
+		while (runs.size() > fan_in) {
+			runs = mergePass(runs);
+		}
+
+		exclusions = new ArrayList<File>();
+		exclusions.add(layer(depth));
+		if (depth > 0) {
+			exclusions.add(layer(depth - 1));
+		}
+
+		count = merge(runs, exclusions, temporary(depth + 1), depth + 1);
+		for (File run : runs) {
+			Files.delete(run.toPath());
+		}
+		commit(depth + 1);
+
+		return count;
+	}
+
+	/**
+	 * Sort the buffer and write it out as a run.
+	 *
+	 * @return the run file
+	 * @throws IOException
+	 *             if the run cannot be written
+	 */
+	private File spill() throws IOException {
+		File result;
+
+		Arrays.sort(buffer, 0, buffered);
+		result = run();
+		try (KeyWriter writer = new KeyWriter(result, shape, run_depth)) {
+			for (int index = 0; index < buffered; index++) {
+				writer.write(buffer[index]);
+			}
+		}
+		buffered = 0;
+
+		return result;
+	}
+
+	/**
+	 * Merge runs in groups to reduce their number.
+	 *
+	 * @param runs
+	 *            the runs, which are deleted
+	 * @return the merged runs
+	 * @throws IOException
+	 *             if the runs cannot be read or written
+	 */
+	private List<File> mergePass(List<File> runs) throws IOException {
+		List<File> result;
+		List<File> group;
+		File merged;
+
+		result = new ArrayList<File>();
+		for (int start = 0; start < runs.size(); start += fan_in) {
+			group = runs.subList(start, Math.min(start + fan_in, runs.size()));
+			merged = run();
+			merge(group, new ArrayList<File>(), merged, run_depth);
+			for (File run : group) {
+				Files.delete(run.toPath());
+			}
+			result.add(merged);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Merge sorted files, dropping duplicates and excluded keys.
+	 *
+	 * @param inputs
+	 *            the files to merge
+	 * @param exclusions
+	 *            files of keys to leave out
+	 * @param output
+	 *            the file to write
+	 * @param depth
+	 *            depth recorded in the output
+	 * @return number of keys written
+	 * @throws IOException
+	 *             if the files cannot be read or written
+	 */
+	private long merge(List<File> inputs, List<File> exclusions, File output, int depth) throws IOException {
+		PriorityQueue<KeyReader> queue;
+		List<KeyReader> excluded;
+		KeyReader reader;
+		long value;
+		boolean skip;
+
+		queue = new PriorityQueue<KeyReader>(Math.max(1, inputs.size()),
+				(left, right) -> Long.compare(left.current(), right.current()));
+		excluded = new ArrayList<KeyReader>();
+
+		try (KeyWriter writer = new KeyWriter(output, shape, depth)) {
+			for (File input : inputs) {
+				reader = new KeyReader(input, shape);
+				if (reader.advance()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+			for (File exclusion : exclusions) {
+				reader = new KeyReader(exclusion, shape);
+				excluded.add(reader);
+				reader.advance();
+			}
+
+			while (!queue.isEmpty()) {
+				reader = queue.remove();
+				value = reader.current();
+				if (reader.advance()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+
+				skip = false;
+				for (KeyReader exclusion : excluded) {
+					while (exclusion.current() < value && exclusion.advance()) {
+						// Skip keys that are smaller
+					}
+					if (exclusion.current() == value) {
+						skip = true;
+					}
+				}
+
+				if (!skip) {
+					writer.write(value);
+				}
+			}
+
+			return writer.count();
+		} finally {
+			for (KeyReader open : queue) {
+				open.close();
+			}
+			for (KeyReader open : excluded) {
+				open.close();
+			}
+		}
+	}
+
+	/**
+	 * Make a layer permanent by renaming its temporary file.
+	 *
+	 * @param depth
+	 *            depth of the layer
+	 * @throws IOException
+	 *             if the file cannot be renamed
+	 */
+	private void commit(int depth) throws IOException {
+		Files.move(temporary(depth).toPath(), layer(depth).toPath(), StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Delete the runs and temporary files of an interrupted search.
+	 *
+	 * @throws IOException
+	 *             if a file cannot be deleted
+	 */
+	private void removeLeftovers() throws IOException {
+		File[] files;
+
+		files = directory.listFiles();
+		if (null == files) {
+			return;
+		}
+
+		for (File file : files) {
+			if (file.getName().startsWith("run-") || file.getName().endsWith(".tmp")) {
+				Files.delete(file.toPath());
+			}
+		}
+	}
+
+	/**
+	 * The file of a complete layer.
+	 *
+	 * @param depth
+	 *            depth of the layer
+	 * @return the file
+	 */
+	private File layer(int depth) {
+		return new File(directory, String.format("layer-%d.bin", depth));
+	}
+
+	/**
+	 * The file a layer is written to before it is complete.
+	 *
+	 * @param depth
+	 *            depth of the layer
+	 * @return the file
+	 */
+	private File temporary(int depth) {
+		return new File(directory, String.format("layer-%d.tmp", depth));
+	}
+
+	/**
+	 * A new run file.
+	 *
+	 * @return the file
+	 */
+	private File run() {
+		return new File(directory, String.format("run-%d.bin", next_run++));
+	}
+
+	/**
+	 * Flip the sign bit of a key, so that signed order is unsigned order.
+	 *
+	 * The flip is its own inverse.
+	 *
+	 * @param key
+	 *            a key or a flipped key
+	 * @return the key with its sign bit flipped
+	 */
+	private static long flip(long key) {
+		return key ^ Long.MIN_VALUE;
+	}
+}
@@ -0,0 +1,297 @@
+package edu.smcm.ai.sliding_block;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import edu.smcm.ai.search.Action;
+import edu.smcm.ai.search.IterativeDeepeningAStar;
+
+/**
+ * A generator of Sliding Block Puzzle instances from a seeded random number
+ * generator.
+ *
+ * The same seed always gives the same instances, on any machine. A generator
+ * is not thread-safe; each thread should have its own, made with split(),
+ * which gives a generator whose numbers are independent of this one's. Three
+ * kinds of instance can be made:
+ *
+ * uniform() draws uniformly from all solvable boards. Half of all
+ * permutations are solvable: exactly those whose parity is the same as the
+ * parity of the Manhattan distance of the blank from its goal, since every
+ * move is a swap that moves the blank by one. An unsolvable permutation is
+ * made solvable by swapping two tiles, which pairs the two halves one to one.
+ *
+ * walk() makes a random walk from the goal that never undoes its previous
+ * move, so it does not waste moves going straight back.
+ *
+ * exact() makes a board whose optimal solution has exactly the given length.
+ * It walks away from the goal and, at each step, moves only to a board
+ * exactly one move further away, which is checked by solving it with IDA*.
+ * This costs a search at every step, so it is only practical for depths that
+ * IDA* solves quickly.
+ */
+public class InstanceGenerator {
+
+	/**
+	 * The number of times exact() starts again from the goal before giving
+	 * up.
+	 */
+	private static final int restart_limit = 1000;
+
+	/**
+	 * A generator for each thread, for instances that need not be
+	 * reproducible.
+	 */
+	private static final ThreadLocal<InstanceGenerator> local;
+
+	/**
+	 * Static initialisation block.
+	 */
+	static {
+		local = ThreadLocal.withInitial(() -> new InstanceGenerator(new SplittableRandom()));
+	}
+
+	/**
+	 * The source of random numbers.
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * The search used by exact(), made when first needed.
+	 */
+	private IterativeDeepeningAStar solver;
+
+	/**
+	 * A constructor.
+	 *
+	 * @param seed
+	 *            seed of the random number generator
+	 */
+	public InstanceGenerator(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param random
+	 *            source of random numbers, owned by the generator from now on
+	 */
+	private InstanceGenerator(SplittableRandom random) {
+		this.random = random;
+	}
+
+	/**
+	 * The generator of the current thread.
+	 *
+	 * It is seeded differently in every run, so it is for callers that do not
+	 * need to reproduce their instances. It needs no locking.
+	 *
+	 * @return this thread's generator
+	 */
+	public static InstanceGenerator local() {
+		return local.get();
+	}
+
+	/**
+	 * Make a generator for another thread.
+	 *
+	 * The new generator's numbers are independent of this one's, and are the
+	 * same in every run with the same seed.
+	 *
+	 * @return a new generator
+	 */
+	public InstanceGenerator split() {
+		return new InstanceGenerator(random.split());
+	}
+
+	/**
+	 * Determine whether a board can be solved.
+	 *
+	 * @param geometry
+	 *            shape of the board
+	 * @param tiles
+	 *            the tiles row by row, 0 being the blank
+	 * @return true if the goal can be reached
+	 */
+	public static boolean solvable(BoardGeometry geometry, int[] tiles) {
+		boolean[] seen;
+		boolean odd;
+		int blank;
+		int length;
+
+		// The parity of a permutation is that of its length less its cycles
+		seen = new boolean[tiles.length];
+		odd = false;
+		blank = -1;
+		for (int start = 0; start < tiles.length; start++) {
+			if (tiles[start] == 0) {
+				blank = start;
+			}
+			if (seen[start]) {
+				continue;
+			}
+			length = 0;
+			for (int index = start; !seen[index]; index = geometry.goal(tiles[index])) {
+				seen[index] = true;
+				length++;
+			}
+			odd ^= (length & 1) == 0;
+		}
+
+		return odd == ((geometry.between(blank, geometry.goal(0)) & 1) == 1);
+	}
+
+	/**
+	 * Make a board drawn uniformly from all solvable boards.
+	 *
+	 * @param geometry
+	 *            shape of the board
+	 * @return the board
+	 */
+	public SlidingBlockState uniform(BoardGeometry geometry) {
+		int[] tiles;
+		int other;
+		int swap;
+		int first;
+		int second;
+
+		tiles = new int[geometry.tiles()];
+		for (int index = 0; index < tiles.length; index++) {
+			tiles[index] = index;
+		}
+
+		// Fisher-Yates shuffle
+		for (int index = tiles.length - 1; index > 0; index--) {
+			other = random.nextInt(index + 1);
+			swap = tiles[index];
+			tiles[index] = tiles[other];
+			tiles[other] = swap;
+		}
+
+		if (tiles.length > 2 && !solvable(geometry, tiles)) {
+			// Swap the first two tiles that are not the blank
+			first = (tiles[0] == 0) ? 1 : 0;
+			second = (tiles[first + 1] == 0) ? first + 2 : first + 1;
+			swap = tiles[first];
+			tiles[first] = tiles[second];
+			tiles[second] = swap;
+		}
+
+		return new SlidingBlockState(geometry, tiles);
+	}
+
+	/**
+	 * Make a board by a random walk from the goal that never undoes its
+	 * previous move.
+	 *
+	 * @param geometry
+	 *            shape of the board
+	 * @param moves
+	 *            length of the walk
+	 * @return the board, no more than moves from the goal
+	 */
+	public SlidingBlockState walk(BoardGeometry geometry, int moves) {
+		SlidingBlockState result;
+		SlidingBlockAction last;
+		SlidingBlockAction action;
+		List<Action> actions;
+
+		result = new SlidingBlockState(geometry);
+		last = null;
+		for (int move = 0; move < moves; move++) {
+			actions = result.actions();
+			do {
+				action = (SlidingBlockAction) actions.get(random.nextInt(actions.size()));
+			} while (last != null && action == last.inverse() && actions.size() > 1);
+			result.takeAction(action);
+			last = action;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Make a board by a random walk from the goal that may undo its moves.
+	 *
+	 * This is how SlidingBlockState(int, int) has always made its boards.
+	 *
+	 * @param geometry
+	 *            shape of the board
+	 * @param moves
+	 *            length of the walk
+	 * @return the board, no more than moves from the goal
+	 */
+	public SlidingBlockState scramble(BoardGeometry geometry, int moves) {
+		SlidingBlockState result;
+		List<Action> actions;
+
+		result = new SlidingBlockState(geometry);
+		for (int move = 0; move < moves; move++) {
+			actions = result.actions();
+			result.takeAction((SlidingBlockAction) actions.get(random.nextInt(actions.size())));
+		}
+
+		return result;
+	}
+
+	/**
+	 * Make a board whose optimal solution has exactly a given length.
+	 *
+	 * @param geometry
+	 *            shape of the board
+	 * @param depth
+	 *            length of the optimal solution
+	 * @return the board
+	 * @throws IllegalArgumentException
+	 *             if no board that far from the goal was found
+	 */
+	public SlidingBlockState exact(BoardGeometry geometry, int depth) {
+		SlidingBlockState result;
+		SlidingBlockState next;
+		SlidingBlockAction last;
+		SlidingBlockAction action;
+		List<Action> actions;
+		int distance;
+		int start;
+		boolean moved;
+
+		if (null == solver) {
+			solver = new IterativeDeepeningAStar(new LinearConflict());
+		}
+
+		for (int restart = 0; restart < restart_limit; restart++) {
+			result = new SlidingBlockState(geometry);
+			last = null;
+
+			for (distance = 0; distance < depth; distance++) {
+				// Every move changes the distance by one, so try the moves
+				// from a random start until one leads further away
+				actions = result.actions();
+				start = random.nextInt(actions.size());
+				moved = false;
+				for (int offset = 0; offset < actions.size() && !moved; offset++) {
+					action = (SlidingBlockAction) actions.get((start + offset) % actions.size());
+					if (last != null && action == last.inverse()) {
+						continue;
+					}
+					next = result.result(action);
+					if (solver.search(new SlidingBlockProblem(next)).size() == distance + 1) {
+						result = next;
+						last = action;
+						moved = true;
+					}
+				}
+				if (!moved) {
+					break;
+				}
+			}
+
+			if (distance == depth) {
+				return result;
+			}
+		}
+
+		throw new IllegalArgumentException("No " + geometry + " board found " + depth + " moves from the goal");
+	}
+}
@@ -0,0 +1,158 @@
+package edu.smcm.ai.sliding_block;
+
+import edu.smcm.ai.search.Action;
+import edu.smcm.ai.search.State;
+
+/**
+ * The Manhattan distance with linear conflicts. See Hansson, Mayer and Yung,
+ * Criticizing Solutions to Relaxed Models Yields Powerful Admissible
+ * Heuristics, Information Sciences 63(3), 1992.
+ * 
+ * Two tiles are in linear conflict if they are in the row (or column) where
+ * both belong but in the wrong order: one of them has to leave the line and
+ * come back, which costs two moves more than the Manhattan distance allows.
+ * For each line the fewest tiles that must leave it is the number of tiles
+ * that belong there less the longest increasing run of their goal positions,
+ * and each of those adds two moves.
+ * 
+ * Rows and columns are read through the BoardGeometry of the state, so
+ * rectangular boards work too.
+ */
+public class LinearConflict extends ManhattanDistance {
+
+	/**
+	 * Scratch space for the longest increasing run, grown as needed.
+	 */
+	private int[] tails = new int[0];
+
+	/**
+	 * Manhattan distance plus two moves for every tile that must leave its
+	 * row or column.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.sliding_block.ManhattanDistance#cost(edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State state) {
+		
+		SlidingBlockState actual = (SlidingBlockState) state;
+		BoardGeometry geometry = actual.geometry();
+		
+		double extra = 0;
+		
+		for (int line = 0; line < geometry.rows(); line++) {
+			extra += conflicts(actual, line, true, -1, -1);
+		}
+		for (int line = 0; line < geometry.columns(); line++) {
+			extra += conflicts(actual, line, false, -1, -1);
+		}
+		
+		return super.cost(state) + 2 * extra;
+	}
+
+	/**
+	 * Incremental Manhattan distance plus linear conflicts.
+	 * 
+	 * A horizontal move only changes the two columns involved and a vertical
+	 * move only the two rows, so only their conflicts are counted again. The
+	 * parent is seen by swapping the blank back with the tile that moved.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.sliding_block.ManhattanDistance#cost(edu.smcm.ai.search.State,
+	 * double, edu.smcm.ai.search.Action, edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State parent, double parent_cost, Action action, State child) {
+		
+		SlidingBlockState actual = (SlidingBlockState) child;
+		BoardGeometry geometry = actual.geometry();
+		int from = actual.blankIndex();
+		int to = actual.previousBlankIndex((SlidingBlockAction) action);
+		boolean row = geometry.column(from) == geometry.column(to);
+		int first = row ? geometry.row(from) : geometry.column(from);
+		int second = row ? geometry.row(to) : geometry.column(to);
+		
+		int change = conflicts(actual, first, row, -1, -1) + conflicts(actual, second, row, -1, -1)
+				- conflicts(actual, first, row, from, to) - conflicts(actual, second, row, from, to);
+		
+		return super.cost(parent, parent_cost, action, child) + 2 * change;
+	}
+
+	/**
+	 * The number of tiles that must leave a line to put it in order.
+	 * 
+	 * The tiles of the line that belong in it are taken in order, and the
+	 * longest increasing run of their goal positions is found by patience
+	 * sorting. Every other tile of the line that belongs there must leave it.
+	 * 
+	 * @param state
+	 *            the state
+	 * @param line
+	 *            index of the row or column
+	 * @param row
+	 *            true for a row, false for a column
+	 * @param swap_a
+	 *            index of a position read as if swapped with swap_b, or -1
+	 * @param swap_b
+	 *            index of a position read as if swapped with swap_a, or -1
+	 * @return number of tiles that must leave the line
+	 */
+	private int conflicts(SlidingBlockState state, int line, boolean row, int swap_a, int swap_b) {
+		BoardGeometry geometry = state.geometry();
+		int length = row ? geometry.columns() : geometry.rows();
+		int belonging = 0;
+		int longest = 0;
+		int index;
+		int tile;
+		int goal;
+		int low;
+		int high;
+		int middle;
+		
+		if (tails.length < length) {
+			tails = new int[length];
+		}
+		
+		for (int step = 0; step < length; step++) {
+			index = row ? geometry.index(line, step) : geometry.index(step, line);
+			if (index == swap_a) {
+				index = swap_b;
+			} else if (index == swap_b) {
+				index = swap_a;
+			}
+			tile = state.tileAt(index);
+			
+			if (tile == 0) {
+				continue;
+			}
+			goal = geometry.goal(tile);
+			if ((row ? geometry.row(goal) : geometry.column(goal)) != line) {
+				continue;
+			}
+			belonging++;
+			goal = row ? geometry.column(goal) : geometry.row(goal);
+			
+			low = 0;
+			high = longest;
+			while (low < high) {
+				middle = (low + high) >>> 1;
+				if (tails[middle] < goal) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			tails[low] = goal;
+			if (low == longest) {
+				longest++;
+			}
+		}
+		
+		return belonging - longest;
+	}
+
+}
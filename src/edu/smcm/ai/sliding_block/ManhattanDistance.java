@@ -1,5 +1,6 @@
 package edu.smcm.ai.sliding_block;
 
+import edu.smcm.ai.search.Action;
 import edu.smcm.ai.search.Heuristic;
 import edu.smcm.ai.search.State;
 
@@ -7,14 +8,25 @@ import edu.smcm.ai.search.State;
  * A heuristic that computes the sum of the Manhattan distances between the
  * tiles and their correct positions. See Russell and Norvig, Artificial
  * Intelligence: A Modern Approach, Third Edition, p.103.
+ * 
+ * The distance of every tile from its goal at every index is looked up in
+ * the BoardGeometry of the state, so boards of any shape work and no
+ * division is done.
  */
 public class ManhattanDistance extends Heuristic {
 
+	/**
+	 * Scratch space for the positions of the tiles in a target, grown as
+	 * needed.
+	 */
+	private int[] where = new int[0];
+
 	/**
 	 * Sum of Manhattan distances of tiles.
 	 * 
 	 * The sum for each tile of the difference in the row and column between
-	 * actual and goal positions.
+	 * actual and goal positions. The blank is not a tile and is not counted,
+	 * otherwise the heuristic would not be admissible.
 	 */
 	/*
 	 * (non-Javadoc)
@@ -25,16 +37,93 @@ public class ManhattanDistance extends Heuristic {
 	public double cost(State state) {
 		
 		SlidingBlockState actual = (SlidingBlockState) state;
+		BoardGeometry geometry = actual.geometry();
+		
+		double dist = 0;
+		
+		for (int index = 0; index < geometry.tiles(); index++) {
+			dist += geometry.distance(actual.tileAt(index), index);
+		}
+		
+		return dist;
+	}
+
+	/**
+	 * Sum of Manhattan distances of tiles between two states.
+	 * 
+	 * The sum for each tile of the difference in the row and column between
+	 * its positions in the two states.
+	 * 
+	 * NOTE: the positions are kept in a field, so an instance should not be
+	 * shared between threads.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State,
+	 * edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State state, State target) {
+		
+		SlidingBlockState actual = (SlidingBlockState) state;
+		SlidingBlockState goal = (SlidingBlockState) target;
+		BoardGeometry geometry = actual.geometry();
+		int tile;
 		
 		double dist = 0;
 		
-		for (int row = 0; row < actual.size(); row++) {
-			for (int column = 0; column < actual.size(); column++) {
-				dist += Math.abs((actual.tileAt(row, column) / 3) - row) + Math.abs((actual.tileAt(row, column) % 3) - column);
+		if (where.length < geometry.tiles()) {
+			where = new int[geometry.tiles()];
+		}
+		for (int index = 0; index < geometry.tiles(); index++) {
+			where[goal.tileAt(index)] = index;
+		}
+		for (int index = 0; index < geometry.tiles(); index++) {
+			tile = actual.tileAt(index);
+			if (tile != 0) {
+				dist += geometry.between(where[tile], index);
 			}
 		}
 		
 		return dist;
 	}
 
+	/**
+	 * The Manhattan distance works between any two boards.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#estimatesToTarget()
+	 */
+	@Override
+	public boolean estimatesToTarget() {
+		return true;
+	}
+
+	/**
+	 * Incremental sum of Manhattan distances of tiles.
+	 * 
+	 * Only one tile moves, from where the blank now is to where it was, so
+	 * only its distance changes.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State,
+	 * double, edu.smcm.ai.search.Action, edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State parent, double parent_cost, Action action, State child) {
+		
+		SlidingBlockState actual = (SlidingBlockState) child;
+		BoardGeometry geometry = actual.geometry();
+		int from = actual.blankIndex();
+		int to = actual.previousBlankIndex((SlidingBlockAction) action);
+		int tile = actual.tileAt(to);
+		
+		return parent_cost - geometry.distance(tile, from) + geometry.distance(tile, to);
+	}
+
 }
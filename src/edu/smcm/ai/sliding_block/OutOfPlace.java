@@ -1,5 +1,6 @@
 package edu.smcm.ai.sliding_block;
 
+import edu.smcm.ai.search.Action;
 import edu.smcm.ai.search.Heuristic;
 import edu.smcm.ai.search.State;
 
@@ -14,7 +15,9 @@ public class OutOfPlace extends Heuristic {
 	/**
 	 * Number of tiles out of place.
 	 * 
-	 * A count of the total number of tiles that are out of place.
+	 * A count of the total number of tiles that are out of place. The blank
+	 * is not a tile and is not counted, otherwise the heuristic would not be
+	 * admissible.
 	 */
 	/* (non-Javadoc)
 	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State)
@@ -23,16 +26,75 @@ public class OutOfPlace extends Heuristic {
 	public double cost(State state) {
 		
 		SlidingBlockState actual = (SlidingBlockState) state;
+		BoardGeometry geometry = actual.geometry();
 		
 		double OOP = 0;
 		
-		for (int row = 0; row < actual.size(); row++) {
-			for (int column = 0; column < actual.size(); column++) {
-				if (actual.tileAt(row, column) != actual.size() * row + column)
-					OOP++;
-			}
+		for (int index = 0; index < geometry.tiles(); index++) {
+			if (actual.tileAt(index) != 0 && geometry.goal(actual.tileAt(index)) != index)
+				OOP++;
 		}
 		
 		return OOP;
 	}
+
+	/**
+	 * Number of tiles in different places in two states.
+	 */
+	/* (non-Javadoc)
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State, edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State state, State target) {
+		
+		SlidingBlockState actual = (SlidingBlockState) state;
+		SlidingBlockState goal = (SlidingBlockState) target;
+		
+		double OOP = 0;
+		
+		for (int index = 0; index < actual.geometry().tiles(); index++) {
+			if (actual.tileAt(index) != 0 && actual.tileAt(index) != goal.tileAt(index))
+				OOP++;
+		}
+		
+		return OOP;
+	}
+
+	/**
+	 * Tiles out of place can be counted between any two boards.
+	 */
+	/* (non-Javadoc)
+	 * @see edu.smcm.ai.search.Heuristic#estimatesToTarget()
+	 */
+	@Override
+	public boolean estimatesToTarget() {
+		return true;
+	}
+
+	/**
+	 * Incremental number of tiles out of place.
+	 * 
+	 * Only one tile moves, from where the blank now is to where it was.
+	 */
+	/* (non-Javadoc)
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State, double, edu.smcm.ai.search.Action, edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State parent, double parent_cost, Action action, State child) {
+		
+		SlidingBlockState actual = (SlidingBlockState) child;
+		int from = actual.blankIndex();
+		int to = actual.previousBlankIndex((SlidingBlockAction) action);
+		int tile = actual.tileAt(to);
+		int goal = actual.geometry().goal(tile);
+		
+		double OOP = parent_cost;
+		
+		if (goal != from)
+			OOP--;
+		if (goal != to)
+			OOP++;
+		
+		return OOP;
+	}
 }
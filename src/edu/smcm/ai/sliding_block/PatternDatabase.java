@@ -0,0 +1,530 @@
+package edu.smcm.ai.sliding_block;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A pattern database for the Sliding Block Puzzle.
+ *
+ * A pattern is a set of tiles. The table holds, for every placement of those
+ * tiles on the board, the least number of moves of pattern tiles needed to
+ * get them to their goal positions, ignoring all other tiles. Moves of other
+ * tiles are free, so the tables of disjoint patterns can be added together
+ * and still give an admissible heuristic. See Korf and Felner, Disjoint
+ * Pattern Database Heuristics, Artificial Intelligence 134, 2002.
+ *
+ * The table is a dense array of bytes indexed by a perfect hash (the rank of
+ * the partial permutation of board positions occupied by the pattern tiles).
+ * It is computed by a breadth-first search backwards from the goal, saved to a
+ * file, and read back through a read-only MappedByteBuffer so that later runs
+ * start quickly and share the pages between JVMs.
+ *
+ * NOTE: lookup() uses a scratch array and is therefore not thread safe. Each
+ * thread should use its own PatternDatabase; instances loaded from the same
+ * file share the same pages.
+ */
+public class PatternDatabase {
+
+	/**
+	 * Magic number at the start of every pattern database file.
+	 */
+	private static final int magic = 0x50444231; // "PDB1"
+
+	/**
+	 * Value of an entry that has not yet been reached.
+	 */
+	private static final int unreached = 0xFF;
+
+	/**
+	 * The largest number of placements of the pattern tiles and the blank
+	 * that build() can search, the largest array the JVM allows.
+	 */
+	static final long table_limit = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Length of the sides of the puzzle.
+	 */
+	private int size;
+
+	/**
+	 * The tiles in the pattern.
+	 */
+	private int[] tiles;
+
+	/**
+	 * For each tile, its slot in the pattern, or -1 if it is not in it.
+	 */
+	private int[] slots;
+
+	/**
+	 * The table itself, indexed by rank.
+	 */
+	private ByteBuffer table;
+
+	/**
+	 * Scratch space for the positions of the pattern tiles.
+	 */
+	private int[] positions;
+
+	/**
+	 * Constructor for a database whose table has been built or loaded.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @param table
+	 *            the table
+	 */
+	private PatternDatabase(int size, int[] tiles, ByteBuffer table) {
+		this.size = size;
+		this.tiles = tiles.clone();
+		this.slots = slots(size, tiles);
+		this.table = table;
+		this.positions = new int[tiles.length + 1];
+	}
+
+	/**
+	 * Obtain the pattern database for some tiles, building it if necessary.
+	 *
+	 * If the file exists it is mapped, otherwise the table is built, written to
+	 * the file and then mapped.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @param file
+	 *            file holding the table
+	 * @return the pattern database
+	 * @throws IOException
+	 *             if the file cannot be read or written
+	 */
+	public static PatternDatabase open(int size, int[] tiles, File file) throws IOException {
+		if (!file.exists()) {
+			save(size, tiles, build(size, tiles), file);
+		}
+
+		return load(size, tiles, file);
+	}
+
+	/**
+	 * Load a pattern database from a file.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @param file
+	 *            file holding the table
+	 * @return the pattern database
+	 * @throws IOException
+	 *             if the file cannot be read or does not hold this pattern
+	 */
+	public static PatternDatabase load(int size, int[] tiles, File file) throws IOException {
+		ByteBuffer header;
+		ByteBuffer table;
+		long entries;
+
+		entries = count(size * size, tiles.length);
+
+		try (RandomAccessFile input = new RandomAccessFile(file, "r"); FileChannel channel = input.getChannel()) {
+			header = ByteBuffer.allocate(headerLength(tiles));
+			while (header.hasRemaining()) {
+				if (channel.read(header) < 0) {
+					throw new IOException("Truncated pattern database " + file);
+				}
+			}
+			header.flip();
+
+			if (header.getInt() != magic || header.getInt() != size || header.getInt() != tiles.length) {
+				throw new IOException("Not a pattern database for this pattern " + file);
+			}
+			for (int tile : tiles) {
+				if (header.getInt() != tile) {
+					throw new IOException("Not a pattern database for this pattern " + file);
+				}
+			}
+			if (channel.size() != headerLength(tiles) + entries) {
+				throw new IOException("Truncated pattern database " + file);
+			}
+
+			table = channel.map(FileChannel.MapMode.READ_ONLY, headerLength(tiles), entries);
+		}
+
+		return new PatternDatabase(size, tiles, table);
+	}
+
+	/**
+	 * Write a table to a file.
+	 *
+	 * The file is written under a temporary name and then renamed, so a
+	 * crash never leaves a partial table behind.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @param table
+	 *            the table
+	 * @param file
+	 *            file to hold the table
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	private static void save(int size, int[] tiles, byte[] table, File file) throws IOException {
+		File temporary;
+
+		temporary = new File(file.getPath() + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+			output.writeInt(magic);
+			output.writeInt(size);
+			output.writeInt(tiles.length);
+			for (int tile : tiles) {
+				output.writeInt(tile);
+			}
+			output.write(table);
+		}
+
+		if (!temporary.renameTo(file)) {
+			throw new IOException("Cannot rename " + temporary + " to " + file);
+		}
+	}
+
+	/**
+	 * Build the table for a pattern.
+	 *
+	 * A breadth-first search is made backwards from the goal over the
+	 * placements of the pattern tiles <I>and</I> the blank. Moves of pattern
+	 * tiles cost one and moves of other tiles cost nothing, so the search uses
+	 * a double-ended queue (0-1 breadth-first search). The table stores the
+	 * least distance over all positions of the blank.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @return the table
+	 */
+	public static byte[] build(int size, int[] tiles) {
+		BoardGeometry geometry;
+		int cells;
+		int k;
+		long full_count;
+		byte[] distance;
+		byte[] table;
+		int[] position;
+		int[] occupant;
+		int[] queue;
+		int head;
+		int tail;
+		int queued;
+		int current;
+		int blank;
+		int neighbour;
+		int slot;
+		int next;
+		int cost;
+		int blank_radix;
+
+		geometry = BoardGeometry.of(size);
+		cells = geometry.tiles();
+		k = tiles.length;
+		slots(size, tiles);
+		full_count = count(cells, k + 1);
+		if (full_count > table_limit) {
+			throw new IllegalArgumentException(
+					"Pattern of " + k + " tiles is too large to build on a " + size + "x" + size + " board");
+		}
+
+		distance = new byte[(int) full_count];
+		Arrays.fill(distance, (byte) unreached);
+		position = new int[k + 1];
+		occupant = new int[cells];
+		queue = new int[1024];
+		head = 0;
+		tail = 0;
+		queued = 0;
+
+		for (int index = 0; index < k; index++) {
+			position[index] = tiles[index];
+		}
+		position[k] = 0;
+		current = rank(position, k + 1, cells);
+		distance[current] = 0;
+		queue[tail] = current;
+		tail = (tail + 1) % queue.length;
+		queued++;
+
+		while (queued > 0) {
+			current = queue[head];
+			head = (head + 1) % queue.length;
+			queued--;
+
+			unrank(current, position, k + 1, cells);
+			Arrays.fill(occupant, -1);
+			for (int index = 0; index < k; index++) {
+				occupant[position[index]] = index;
+			}
+			blank = position[k];
+
+			for (int direction = 0; direction < 4; direction++) {
+				neighbour = geometry.target(blank, direction);
+				if (neighbour < 0) {
+					continue;
+				}
+
+				slot = occupant[neighbour];
+				if (slot >= 0) {
+					position[slot] = blank;
+				}
+				position[k] = neighbour;
+				next = rank(position, k + 1, cells);
+				if (slot >= 0) {
+					position[slot] = neighbour;
+				}
+				position[k] = blank;
+
+				cost = (distance[current] & 0xFF) + ((slot >= 0) ? 1 : 0);
+				if ((distance[next] & 0xFF) <= cost) {
+					continue;
+				}
+				distance[next] = (byte) cost;
+
+				if (queued == queue.length) {
+					queue = grow(queue, head);
+					head = 0;
+					tail = queued;
+				}
+				if (slot >= 0) {
+					queue[tail] = next;
+					tail = (tail + 1) % queue.length;
+				} else {
+					head = (head - 1 + queue.length) % queue.length;
+					queue[head] = next;
+				}
+				queued++;
+			}
+		}
+
+		// The blank is the last digit of the rank, so placements that differ
+		// only in the blank are adjacent.
+		blank_radix = cells - k;
+		table = new byte[(int) (full_count / blank_radix)];
+		for (int index = 0; index < table.length; index++) {
+			cost = unreached;
+			for (int digit = 0; digit < blank_radix; digit++) {
+				cost = Math.min(cost, distance[index * blank_radix + digit] & 0xFF);
+			}
+			table[index] = (byte) cost;
+		}
+
+		return table;
+	}
+
+	/**
+	 * The tiles in the pattern.
+	 *
+	 * @return copy of the tiles in the pattern
+	 */
+	public int[] tiles() {
+		return tiles.clone();
+	}
+
+	/**
+	 * Look up the number of moves of pattern tiles needed to solve a state.
+	 *
+	 * This does not allocate.
+	 *
+	 * @param state
+	 *            the state
+	 * @return number of moves of pattern tiles needed
+	 */
+	public int lookup(SlidingBlockState state) {
+		int cells;
+		int slot;
+
+		cells = size * size;
+		for (int index = 0; index < cells; index++) {
+			slot = slots[state.tileAt(index)];
+			if (slot >= 0) {
+				positions[slot] = index;
+			}
+		}
+
+		return table.get(rank(positions, tiles.length, cells)) & 0xFF;
+	}
+
+	/**
+	 * The number of partial permutations of length k of n positions.
+	 *
+	 * @param n
+	 *            number of positions
+	 * @param k
+	 *            number of positions chosen
+	 * @return n! / (n - k)!
+	 */
+	static long count(int n, int k) {
+		long result;
+
+		result = 1;
+		for (int index = 0; index < k; index++) {
+			result = result * (n - index);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Rank a partial permutation of positions.
+	 *
+	 * The rank is a mixed radix number whose i-th digit is the number of
+	 * positions not used by earlier elements that are smaller than the i-th
+	 * element. It is a perfect hash onto 0 .. count(n, k) - 1.
+	 *
+	 * @param position
+	 *            the positions
+	 * @param k
+	 *            number of positions to rank
+	 * @param n
+	 *            number of positions on the board
+	 * @return the rank
+	 */
+	static int rank(int[] position, int k, int n) {
+		int result;
+		int digit;
+
+		result = 0;
+		for (int index = 0; index < k; index++) {
+			digit = position[index];
+			for (int earlier = 0; earlier < index; earlier++) {
+				if (position[earlier] < position[index]) {
+					digit--;
+				}
+			}
+			result = result * (n - index) + digit;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Recover a partial permutation of positions from its rank.
+	 *
+	 * @param rank
+	 *            the rank
+	 * @param position
+	 *            where to put the positions
+	 * @param k
+	 *            number of positions ranked
+	 * @param n
+	 *            number of positions on the board
+	 */
+	static void unrank(int rank, int[] position, int k, int n) {
+		int digit;
+
+		for (int index = k - 1; index >= 0; index--) {
+			position[index] = rank % (n - index);
+			rank = rank / (n - index);
+		}
+
+		// Turn each digit into a position by skipping the positions used by
+		// earlier elements.
+		for (int index = 0; index < k; index++) {
+			digit = position[index];
+			position[index] = 0;
+			while (true) {
+				while (used(position, index, position[index])) {
+					position[index]++;
+				}
+				if (digit == 0) {
+					break;
+				}
+				digit--;
+				position[index]++;
+			}
+		}
+	}
+
+	/**
+	 * Determine whether a position is used by one of the first elements.
+	 *
+	 * @param position
+	 *            the positions
+	 * @param k
+	 *            number of elements to check
+	 * @param value
+	 *            position to look for
+	 * @return true if one of the first k elements is value
+	 */
+	private static boolean used(int[] position, int k, int value) {
+		for (int index = 0; index < k; index++) {
+			if (position[index] == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Double the size of a circular queue.
+	 *
+	 * @param queue
+	 *            a full queue
+	 * @param head
+	 *            position of the first element
+	 * @return a larger queue with the first element at position 0
+	 */
+	private static int[] grow(int[] queue, int head) {
+		int[] result;
+
+		result = new int[queue.length * 2];
+		System.arraycopy(queue, head, result, 0, queue.length - head);
+		System.arraycopy(queue, 0, result, queue.length - head, head);
+
+		return result;
+	}
+
+	/**
+	 * Compute the slot of each tile in a pattern.
+	 *
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @return for each tile its slot, or -1 if it is not in the pattern
+	 */
+	private static int[] slots(int size, int[] tiles) {
+		int[] result;
+
+		result = new int[size * size];
+		Arrays.fill(result, -1);
+		for (int index = 0; index < tiles.length; index++) {
+			if (tiles[index] <= 0 || tiles[index] >= size * size || result[tiles[index]] >= 0) {
+				throw new IllegalArgumentException("Bad pattern " + Arrays.toString(tiles));
+			}
+			result[tiles[index]] = index;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Length of the header of a file.
+	 *
+	 * @param tiles
+	 *            the tiles in the pattern
+	 * @return number of bytes before the table
+	 */
+	private static int headerLength(int[] tiles) {
+		return 4 * (3 + tiles.length);
+	}
+}
@@ -96,6 +96,28 @@ public class SlidingBlockAction extends edu.smcm.ai.search.Action {
 		return value;
 	}
 
+	/**
+	 * The action that undoes this one.
+	 * 
+	 * Sliding a tile back is always legal, so every action has an inverse.
+	 * 
+	 * @return the opposite action
+	 */
+	public SlidingBlockAction inverse() {
+		switch (value) {
+		case Left:
+			return right;
+		case Right:
+			return left;
+		case Up:
+			return down;
+		case Down:
+			return up;
+		default:
+			throw new ImplementationException("Unknown action " + value);
+		}
+	}
+
 	static public List<Action> actions() {
 		return (List) new ArrayList<Action>(actions);
 	}
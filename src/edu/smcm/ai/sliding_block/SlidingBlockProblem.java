@@ -2,7 +2,6 @@ package edu.smcm.ai.sliding_block;
 
 import java.util.List;
 
-import edu.smcm.ai.experiments.SlidingPuzzleHeuristics;
 import edu.smcm.ai.search.Action;
 import edu.smcm.ai.search.Problem;
 import edu.smcm.ai.search.State;
@@ -21,6 +20,11 @@ public class SlidingBlockProblem extends Problem {
 	 */
 	private SlidingBlockState initial_state;
 
+	/**
+	 * The goal state of the problem. It is made once, not on every test.
+	 */
+	private SlidingBlockState goal_state;
+
 	/**
 	 * Constructor that makes an initial state that is also the goal state.
 	 * 
@@ -29,6 +33,7 @@ public class SlidingBlockProblem extends Problem {
 	 */
 	public SlidingBlockProblem(int size) {
 		initial_state = new SlidingBlockState(size);
+		goal_state = new SlidingBlockState(size);
 	}
 
 	/**
@@ -42,6 +47,32 @@ public class SlidingBlockProblem extends Problem {
 	 */
 	public SlidingBlockProblem(int size, int moves) {
 		initial_state = new SlidingBlockState(size, moves);
+		goal_state = new SlidingBlockState(size);
+	}
+
+	/**
+	 * Constructor for a board of any shape that makes an initial puzzle by
+	 * applying random actions to the goal state.
+	 * 
+	 * @param geometry
+	 *            the shape of the board
+	 * @param moves
+	 *            the number of moves to make
+	 */
+	public SlidingBlockProblem(BoardGeometry geometry, int moves) {
+		initial_state = new SlidingBlockState(geometry, moves);
+		goal_state = new SlidingBlockState(geometry);
+	}
+
+	/**
+	 * Constructor for a given initial state.
+	 * 
+	 * @param initial_state
+	 *            the initial state of the puzzle
+	 */
+	public SlidingBlockProblem(SlidingBlockState initial_state) {
+		this.initial_state = initial_state;
+		this.goal_state = new SlidingBlockState(initial_state.geometry());
 	}
 
 	/**
@@ -70,6 +101,20 @@ public class SlidingBlockProblem extends Problem {
 		return ((SlidingBlockState) state).actions();
 	}
 
+	/**
+	 * The goal state of the Sliding Block Puzzle, with all tiles in order and
+	 * the blank at the top left.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Problem#goalState()
+	 */
+	@Override
+	public SlidingBlockState goalState() {
+		return goal_state;
+	}
+
 	/**
 	 * Determine if the state is in fact a goal state.
 	 * 
@@ -81,10 +126,49 @@ public class SlidingBlockProblem extends Problem {
 	 * @see edu.smcm.ai.search.Problem#isGoalState(edu.smcm.ai.search.State)
 	 */
 	@Override
-	public boolean isGoalState(State state) {		
-		State goal = new SlidingBlockState(SlidingPuzzleHeuristics.problem_size);
-		
-		return ((SlidingBlockState) state).equals((SlidingBlockState) goal);
+	public boolean isGoalState(State state) {
+		return ((SlidingBlockState) state).equals(goal_state);
+	}
+
+	/**
+	 * Make the state of the same shape as the initial state that has a key.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Problem#decode(long)
+	 */
+	@Override
+	public SlidingBlockState decode(long key) {
+		return new SlidingBlockState(initial_state.geometry(), key);
+	}
+
+	/**
+	 * The number of ranks of boards of the shape of the initial state.
+	 *
+	 * Half of them are of boards that cannot be reached.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Problem#indexCount()
+	 */
+	@Override
+	public long indexCount() {
+		return initial_state.geometry().permutations();
+	}
+
+	/**
+	 * The rank of a board.
+	 */
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see edu.smcm.ai.search.Problem#index(edu.smcm.ai.search.State)
+	 */
+	@Override
+	public long index(State state) {
+		return ((SlidingBlockState) state).rank();
 	}
 
 	/**
@@ -102,6 +186,60 @@ public class SlidingBlockProblem extends Problem {
 		return ((SlidingBlockState) state).result((SlidingBlockAction) action);
 	}
 
+	/**
+	 * Sliding Block Puzzle states can be changed in place and every action
+	 * can be undone.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Problem#reversible()
+	 */
+	@Override
+	public boolean reversible() {
+		return true;
+	}
+
+	/**
+	 * Make a private copy of a state for changing in place.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Problem#copy(edu.smcm.ai.search.State)
+	 */
+	@Override
+	public SlidingBlockState copy(State state) {
+		return new SlidingBlockState((SlidingBlockState) state);
+	}
+
+	/**
+	 * Slide a tile of a private copy of a state.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Problem#apply(edu.smcm.ai.search.State,
+	 * edu.smcm.ai.search.Action)
+	 */
+	@Override
+	public void apply(State state, Action action) {
+		((SlidingBlockState) state).takeAction((SlidingBlockAction) action);
+	}
+
+	/**
+	 * Obtain the action that slides the tile back.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Problem#inverse(edu.smcm.ai.search.Action)
+	 */
+	@Override
+	public SlidingBlockAction inverse(Action action) {
+		return ((SlidingBlockAction) action).inverse();
+	}
+
 	/**
 	 * Obtain the cost of applying an action in this state
 	 */
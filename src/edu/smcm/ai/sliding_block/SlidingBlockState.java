@@ -1,9 +1,8 @@
 package edu.smcm.ai.sliding_block;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 import edu.smcm.ai.search.Action;
 
@@ -12,19 +11,64 @@ import edu.smcm.ai.search.Action;
  * 
  * The position of the various tiles in an instance of the puzzle. The rows are
  * numbered from the top left corner. The blank should therefore end up at (0,
- * 0).
+ * 0). Boards may be square or rectangular; the shape, and every table that
+ * depends on it, is held in a shared BoardGeometry.
  */
 public class SlidingBlockState extends edu.smcm.ai.search.State {
 
 	/**
-	 * Tiles of puzzle.
+	 * The largest number of tiles that can be packed into a single long at
+	 * four bits per tile.
 	 */
-	private int[][] tiles;
+	private static final int narrow_limit = 16;
 
 	/**
-	 * A random number generator for initial states.
+	 * The largest number of tiles that can be packed into a long[] at eight
+	 * bits per tile.
 	 */
-	private static Random oracle;
+	private static final int wide_limit = BoardGeometry.tile_limit;
+
+	/**
+	 * Zobrist keys, one for each tile at each index, found at
+	 * index * wide_limit + tile. They are drawn from a fixed seed so that
+	 * hashes are the same in every run.
+	 */
+	private static final long[] zobrist;
+
+	/**
+	 * The shape of the board.
+	 */
+	private BoardGeometry geometry;
+
+	/**
+	 * Tiles of puzzle packed four bits per tile, tile (row, column) being
+	 * found at index row * columns + column. Only used for boards of up to 16
+	 * tiles.
+	 */
+	private long tiles;
+
+	/**
+	 * Tiles of puzzle packed eight bits per tile for boards of more than 16
+	 * tiles. This is null for smaller boards.
+	 */
+	private long[] wide_tiles;
+
+	/**
+	 * Index of the blank tile, cached so that it never has to be searched
+	 * for.
+	 */
+	private int blank;
+
+	/**
+	 * Zobrist hash of the tiles, kept up to date as tiles are written.
+	 */
+	private long hash;
+
+	/**
+	 * The rank of the tiles, or -1 if it has not been found since they were
+	 * last written.
+	 */
+	private long rank;
 
 	/**
 	 * Static initialisation block.
@@ -33,7 +77,12 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * flexible than initialising them where they are declared.
 	 */
 	static {
-		oracle = new Random();
+		SplittableRandom keys = new SplittableRandom(0x5EED_2B0B_215AL);
+
+		zobrist = new long[wide_limit * wide_limit];
+		for (int index = 0; index < zobrist.length; index++) {
+			zobrist[index] = keys.nextLong();
+		}
 	}
 
 	/**
@@ -70,14 +119,17 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 *            length of the sides
 	 */
 	public SlidingBlockState(int size) {
-		
-		tiles = new int[size][size];
-		
-		for (int row = 0; row < size; row++) {
-			for (int column = 0; column < size; column ++) {
-				tiles[row][column] = row * size + column;
-			}
-		}
+		this(BoardGeometry.of(size));
+	}
+
+	/**
+	 * Create the goal state for a board of any shape.
+	 * 
+	 * @param geometry
+	 *            shape of the board
+	 */
+	public SlidingBlockState(BoardGeometry geometry) {
+		goal(geometry);
 	}
 
 	/**
@@ -87,7 +139,9 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * initial starting point for the puzzle. NOTE: the puzzle is trivially
 	 * solvable in no more than the number of moves supplied. It may take fewer
 	 * moves because the random moves may contain moves that undo a previous
-	 * move, for example.
+	 * move, for example. The moves are drawn from the InstanceGenerator of the
+	 * current thread, so they differ from run to run; use an InstanceGenerator
+	 * with a seed for instances that can be reproduced.
 	 * 
 	 * @param size
 	 *            size of puzzle to create
@@ -95,59 +149,121 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 *            number of random moves to apply
 	 */
 	public SlidingBlockState(int size, int moves) {
-		int thisAction;
-		List<Action> actions;
-		
-		tiles = new int[size][size];
-		
-		for (int row = 0; row < size; row++) {
-			for (int column = 0; column < size; column ++) {
-				tiles[row][column] = row * size + column;
+		this(BoardGeometry.of(size), moves);
+	}
+
+	/**
+	 * Create an initial state for a board of any shape using random moves.
+	 * 
+	 * @param geometry
+	 *            shape of the board
+	 * @param moves
+	 *            number of random moves to apply
+	 */
+	public SlidingBlockState(BoardGeometry geometry, int moves) {
+		this(InstanceGenerator.local().scramble(geometry, moves));
+	}
+
+	/**
+	 * Create a state for the Sliding Puzzle with given tiles.
+	 * 
+	 * @param size
+	 *            length of the sides
+	 * @param tiles
+	 *            the tiles row by row, 0 being the blank
+	 */
+	public SlidingBlockState(int size, int[] tiles) {
+		this(BoardGeometry.of(size), tiles);
+	}
+
+	/**
+	 * Create a state for a board of any shape with given tiles.
+	 * 
+	 * @param geometry
+	 *            shape of the board
+	 * @param tiles
+	 *            the tiles row by row, 0 being the blank
+	 */
+	public SlidingBlockState(BoardGeometry geometry, int[] tiles) {
+		boolean[] seen;
+
+		goal(geometry);
+		if (tiles.length != geometry.tiles()) {
+			throw new IllegalArgumentException("Expected " + geometry.tiles() + " tiles");
+		}
+
+		seen = new boolean[tiles.length];
+		for (int index = 0; index < tiles.length; index++) {
+			if (tiles[index] < 0 || tiles[index] >= tiles.length || seen[tiles[index]]) {
+				throw new IllegalArgumentException("Tiles are not a permutation: " + Arrays.toString(tiles));
+			}
+			seen[tiles[index]] = true;
+			tile(index, tiles[index]);
+			if (tiles[index] == 0) {
+				blank = index;
 			}
 		}
-		
-		for (int swaps = 0; swaps < moves; swaps++) {
-			actions = actions();
-			thisAction = oracle.nextInt(actions.size());
-//			for (int row = 0; row < size; row++) {
-//				for (int column = 0; column < size; column ++) {
-//					System.out.print(tiles[row][column] + " ");
-//				}
-//				System.out.println();
-//			}
-//			System.out.println(actions.get(thisAction).toString());
-			takeAction((SlidingBlockAction) actions.get(thisAction));		
+	}
+
+	/**
+	 * Create a state for the Sliding Puzzle from its key.
+	 * 
+	 * This is the inverse of key(), for boards of up to 4x4.
+	 * 
+	 * @param size
+	 *            length of the sides
+	 * @param key
+	 *            the tiles packed four bits per tile
+	 */
+	public SlidingBlockState(int size, long key) {
+		this(BoardGeometry.of(size), key);
+	}
+
+	/**
+	 * Create a state for a board of any shape from its key.
+	 * 
+	 * This is the inverse of key(), for boards of up to 16 tiles.
+	 * 
+	 * @param geometry
+	 *            shape of the board
+	 * @param key
+	 *            the tiles packed four bits per tile
+	 */
+	public SlidingBlockState(BoardGeometry geometry, long key) {
+		int seen;
+		int value;
+
+		goal(geometry);
+		if (wide_tiles != null) {
+			throw new IllegalArgumentException("Boards of more than " + narrow_limit + " tiles have no key");
+		}
+
+		seen = 0;
+		for (int index = 0; index < geometry.tiles(); index++) {
+			value = (int) (key >>> (index << 2)) & 0xF;
+			if (value >= geometry.tiles() || (seen & (1 << value)) != 0) {
+				throw new IllegalArgumentException("Not the key of a " + geometry + " board: "
+						+ Long.toHexString(key));
+			}
+			seen |= 1 << value;
+			tile(index, value);
+			if (value == 0) {
+				blank = index;
+			}
 		}
 	}
 
 	/**
 	 * Generate the list of <I>legal</I> actions in this state.
 	 * 
-	 * Generates a list of all actions possible in any state, then removes those
-	 * that are illegal in this state because the blank is on an edge (or worse
-	 * in a corner). This method strictly belongs in the Problem subclass, but
+	 * The list is looked up by the position of the blank in a table of the
+	 * BoardGeometry. This method strictly belongs in the Problem subclass, but
 	 * is used in generating random starting states.
 	 * 
-	 * @return list of <I>legal</I> actions
+	 * @return unmodifiable list of <I>legal</I> actions
 	 */
 	public List<Action> actions() {
-		Coordinate blank;		
-		List<Action> actions = SlidingBlockAction.actions();
-		blank = findBlank();
-		
-		if (blank.column == 0) {
-			actions.remove(SlidingBlockAction.left);
-		}
-		if (blank.column == size() - 1) {
-			actions.remove(SlidingBlockAction.right);
-		}
-		if (blank.row == 0) {
-			actions.remove(SlidingBlockAction.up);
-		}
-		if (blank.row == size() - 1) {
-			actions.remove(SlidingBlockAction.down);
-		}
-		return actions;
+		return geometry.actions(blank);
 	}
 
 	/**
@@ -160,12 +276,89 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 *            original puzzle instance to be copied
 	 */
 	public SlidingBlockState(SlidingBlockState original) {
-		this.tiles = new int[original.size()][original.size()];
+		this.geometry = original.geometry;
+		this.tiles = original.tiles;
+		this.blank = original.blank;
+		this.hash = original.hash;
+		this.rank = original.rank;
+
+		if (original.wide_tiles != null) {
+			this.wide_tiles = original.wide_tiles.clone();
+		}
+	}
 
-		for (int row = 0; row < tiles.length; row++) {
-			for (int column = 0; column < tiles[row].length; column++) {
-				this.tiles[row][column] = original.tiles[row][column];
-			}
+	/**
+	 * Set the tiles to the goal state.
+	 * 
+	 * Used by the constructors. All tiles are in order with the blank at the
+	 * top left corner.
+	 * 
+	 * @param geometry
+	 *            shape of the board
+	 */
+	private void goal(BoardGeometry geometry) {
+		int cells = geometry.tiles();
+
+		this.geometry = geometry;
+		this.tiles = 0L;
+		this.wide_tiles = null;
+		this.blank = 0;
+		this.hash = 0L;
+		this.rank = -1L;
+
+		if (cells > narrow_limit) {
+			wide_tiles = new long[(cells + 7) / 8];
+		}
+
+		// Every position starts out holding tile 0
+		for (int index = 0; index < cells; index++) {
+			hash ^= zobrist[index * wide_limit];
+		}
+
+		for (int index = 0; index < cells; index++) {
+			tile(index, index);
+		}
+	}
+
+	/**
+	 * Read a tile from the packed representation.
+	 * 
+	 * @param index
+	 *            index of the position, row * columns + column
+	 * @return the value of the tile at that position
+	 */
+	private int tile(int index) {
+		if (wide_tiles == null) {
+			return (int) (tiles >>> (index << 2)) & 0xF;
+		} else {
+			return (int) (wide_tiles[index >>> 3] >>> ((index & 7) << 3)) & 0xFF;
+		}
+	}
+
+	/**
+	 * Write a tile into the packed representation.
+	 * 
+	 * The Zobrist hash is updated for the old and new tiles at the index, and
+	 * the cached rank is forgotten.
+	 * NOTE: This does not maintain the cached blank index.
+	 * 
+	 * @param index
+	 *            index of the position, row * columns + column
+	 * @param value
+	 *            the value of the tile to be placed there
+	 */
+	private void tile(int index, int value) {
+		int shift;
+
+		hash ^= zobrist[index * wide_limit + tile(index)] ^ zobrist[index * wide_limit + value];
+		rank = -1L;
+
+		if (wide_tiles == null) {
+			shift = index << 2;
+			tiles = (tiles & ~(0xFL << shift)) | ((long) value << shift);
+		} else {
+			shift = (index & 7) << 3;
+			wide_tiles[index >>> 3] = (wide_tiles[index >>> 3] & ~(0xFFL << shift)) | ((long) value << shift);
 		}
 	}
 
@@ -173,9 +366,24 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * Obtain the length of the sides of the Sliding Block Puzzle.
 	 * 
 	 * @return length of sides of puzzle
+	 * @throws UnsupportedOperationException
+	 *             if the board is not square
 	 */
 	public int size() {
-		return tiles.length;
+		if (!geometry.isSquare()) {
+			throw new UnsupportedOperationException("A " + geometry + " board is not square");
+		}
+
+		return geometry.rows();
+	}
+
+	/**
+	 * Obtain the shape of the board.
+	 * 
+	 * @return the shared geometry of the board
+	 */
+	public BoardGeometry geometry() {
+		return geometry;
 	}
 
 	/**
@@ -191,7 +399,21 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * @return the value on the tile at that position
 	 */
 	public int tileAt(int row, int column) {
-		return tiles[row][column];
+		return tile(geometry.index(row, column));
+	}
+
+	/**
+	 * Accessor for tile value by index.
+	 * 
+	 * The index of (row, column) is row * columns + column, which is also the
+	 * value of the tile that belongs there.
+	 * 
+	 * @param index
+	 *            the index of the position being accessed
+	 * @return the value on the tile at that position
+	 */
+	public int tileAt(int index) {
+		return tile(index);
 	}
 
 	/**
@@ -205,27 +427,44 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * @return the value of the tile at the supplied coordinates
 	 */
 	public int tileAt(Coordinate coordinate) {
-		return tiles[coordinate.row()][coordinate.column()];
+		return tile(geometry.index(coordinate.row(), coordinate.column()));
 	}
 
 	/**
 	 * Find the blank tile on the board.
 	 * 
-	 * This method returns a Coordinate object so we don't have to search the
-	 * board twice -- once for the row and another time for the column.
+	 * The position of the blank is cached, so this no longer needs to search
+	 * the board.
 	 * 
 	 * @return the Coordinate of the blank tile
 	 */
 	public Coordinate findBlank() {
-		for (int row = 0; row < tiles.length; row++) {
-			for (int column = 0; column < tiles[row].length; column++) {
-				if (tiles[row][column] == 0) {
-					return new Coordinate(row, column);
-				}
-			}
-		}
+		return new Coordinate(geometry.row(blank), geometry.column(blank));
+	}
+
+	/**
+	 * Index of the blank tile.
+	 * 
+	 * Unlike findBlank() this does not create an object.
+	 * 
+	 * @return index of the blank, row * columns + column
+	 */
+	public int blankIndex() {
+		return blank;
+	}
 
-		throw new ImplementationException("No blank");
+	/**
+	 * Index the blank had before the action leading to this state was taken.
+	 * 
+	 * This is where the tile moved by the action now is, and it is what
+	 * incremental heuristics need to know.
+	 * 
+	 * @param action
+	 *            the action that led to this state
+	 * @return index of the blank in the previous state
+	 */
+	public int previousBlankIndex(SlidingBlockAction action) {
+		return geometry.source(blank, action);
 	}
 
 	/**
@@ -234,38 +473,24 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * NOTE: This method should be used with care since it mutates the current
 	 * state's tiles. It should only be used when generating an initial board
 	 * and when updating a state that has been copied to make the next state (in
-	 * the result method).
+	 * the result method), and by SlidingBlockProblem.apply() on a private copy
+	 * for searches that work in place.
 	 * 
 	 * @param action
 	 *            the action to be applied to the tile
 	 */
-	private void takeAction(SlidingBlockAction action) {
+	void takeAction(SlidingBlockAction action) {
 		
-		int temp;
-		Coordinate blank = findBlank();
+		int target;
 		
-		switch (action.value()) {
-		case Right:
-			temp = tileAt(blank.row, blank.column+1);
-			tiles[blank.row][blank.column] = temp;
-			tiles[blank.row][blank.column+1] = 0;
-			break;
-		case Left:
-			temp = tileAt(blank.row, blank.column-1);
-			tiles[blank.row][blank.column] = temp;
-			tiles[blank.row][blank.column-1] = 0;
-			break;
-		case Up:
-			temp = tileAt(blank.row-1, blank.column);
-			tiles[blank.row][blank.column] = temp;
-			tiles[blank.row-1][blank.column] = 0;
-			break;
-		case Down:
-			temp = tileAt(blank.row+1, blank.column);
-			tiles[blank.row][blank.column] = temp;
-			tiles[blank.row+1][blank.column] = 0;
-			break;
+		target = geometry.target(blank, action);
+		if (target < 0) {
+			throw new ImplementationException("Cannot move " + action + " from index " + blank);
 		}
+		
+		tile(blank, tile(target));
+		tile(target, 0);
+		blank = target;
 	}
 
 	/**
@@ -304,26 +529,240 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * @return true if the tiles are in the same place
 	 */
 	public boolean equals(SlidingBlockState that) {
-		boolean result;
+		return that != null && geometry == that.geometry && tiles == that.tiles
+				&& Arrays.equals(wide_tiles, that.wide_tiles);
+	}
 
-		result = true;
-		for (int row = 0; row < tiles.length; row++) {
-			for (int column = 0; column < tiles[0].length; column++) {
-				result = result && (tiles[row][column] == that.tiles[row][column]);
-			}
+	/**
+	 * Equality method.
+	 * 
+	 * Overrides Object.equals() so that HashSet&lt;&gt; and HashMap&lt;&gt;
+	 * actually use tile equality rather than reference equality.
+	 * 
+	 * @param that
+	 *            the other object being compared
+	 * @return true if that is a SlidingBlockState with the tiles in the same
+	 *         place
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object that) {
+		return (that instanceof SlidingBlockState) && equals((SlidingBlockState) that);
+	}
+
+	/**
+	 * Determine whether this state can be encoded exactly in a long.
+	 * 
+	 * Boards of up to 16 tiles are packed into a single long, which is its
+	 * key.
+	 * 
+	 * @return true if the board has no more than 16 tiles
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.State#hasKey()
+	 */
+	@Override
+	public boolean hasKey() {
+		return wide_tiles == null;
+	}
+
+	/**
+	 * The packed tiles of a board of up to 16 tiles.
+	 * 
+	 * @return the tiles packed four bits per tile
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.State#key()
+	 */
+	@Override
+	public long key() {
+		if (wide_tiles != null) {
+			throw new UnsupportedOperationException("Boards of more than " + narrow_limit + " tiles have no key");
 		}
 
+		return tiles;
+	}
+
+	/**
+	 * The rank of the arrangement of the tiles among all arrangements.
+	 *
+	 * The rank is a perfect hash of the board onto 0 .. n! - 1, where n is the
+	 * number of positions. It is the rank of Myrvold and Ruskey, found in
+	 * linear time rather than the quadratic time of the lexicographic rank,
+	 * though it does not follow lexicographic order: the tile at the last
+	 * position is the lowest digit,
+	 * and swapping tile n - 1 into that position leaves a permutation of n - 1
+	 * tiles to rank in the same way. See Myrvold and Ruskey, Ranking and
+	 * Unranking Permutations in Linear Time, Information Processing Letters
+	 * 79(6), 2001.
+	 *
+	 * Only half of the ranks are of boards that can be solved, so the ranks
+	 * of the boards reachable from any one board are not dense, but they are
+	 * no more than twice as many. The rank is cached until a tile is next
+	 * written, since a search looks it up several times for each state.
+	 *
+	 * @return the rank
+	 * @throws UnsupportedOperationException
+	 *             if the board has more than 20 tiles
+	 */
+	public long rank() {
+		int cells = geometry.tiles();
+		int[] permutation;
+		int[] inverse;
+		int tile;
+		int position;
+		long result;
+		long radix;
+
+		if (cells > BoardGeometry.rank_limit) {
+			throw new UnsupportedOperationException("Boards of more than " + BoardGeometry.rank_limit
+					+ " tiles cannot be ranked");
+		}
+
+		if (rank >= 0) {
+			return rank;
+		}
+
+		if (wide_tiles == null) {
+			rank = narrowRank(cells);
+			return rank;
+		}
+
+		permutation = new int[cells];
+		inverse = new int[cells];
+		for (int index = 0; index < cells; index++) {
+			permutation[index] = tile(index);
+			inverse[permutation[index]] = index;
+		}
+
+		result = 0;
+		radix = 1;
+		for (int count = cells; count > 1; count--) {
+			// Swap tile count - 1 into the last position of those left
+			tile = permutation[count - 1];
+			position = inverse[count - 1];
+			permutation[position] = tile;
+			inverse[tile] = position;
+
+			result += tile * radix;
+			radix *= count;
+		}
+		rank = result;
+
 		return result;
 	}
 
+	/**
+	 * The rank of a board of up to 16 tiles.
+	 * 
+	 * This is rank() with the permutation and its inverse packed four bits to
+	 * an element in longs, as the tiles already are, so that a search that
+	 * ranks every state it meets allocates nothing to do so.
+	 * 
+	 * @param cells
+	 *            number of positions
+	 * @return the rank
+	 */
+	private long narrowRank(int cells) {
+		long permutation;
+		long inverse;
+		int tile;
+		int position;
+		long result;
+		long radix;
+
+		permutation = tiles;
+		inverse = 0L;
+		for (int index = 0; index < cells; index++) {
+			inverse |= (long) index << (((int) (permutation >>> (index << 2)) & 0xF) << 2);
+		}
+
+		result = 0;
+		radix = 1;
+		for (int count = cells; count > 1; count--) {
+			tile = (int) (permutation >>> ((count - 1) << 2)) & 0xF;
+			position = (int) (inverse >>> ((count - 1) << 2)) & 0xF;
+			permutation = (permutation & ~(0xFL << (position << 2))) | ((long) tile << (position << 2));
+			inverse = (inverse & ~(0xFL << (tile << 2))) | ((long) position << (tile << 2));
+
+			result += tile * radix;
+			radix *= count;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Make the board that has a rank.
+	 *
+	 * This is the inverse of rank().
+	 *
+	 * @param geometry
+	 *            shape of the board
+	 * @param rank
+	 *            the rank, from 0 to geometry.permutations() - 1
+	 * @return a new state with that rank
+	 */
+	public static SlidingBlockState unrank(BoardGeometry geometry, long rank) {
+		int[] tiles;
+		int other;
+		int swap;
+
+		if (rank < 0 || rank >= geometry.permutations()) {
+			throw new IllegalArgumentException("Not the rank of a " + geometry + " board: " + rank);
+		}
+
+		tiles = new int[geometry.tiles()];
+		for (int index = 0; index < tiles.length; index++) {
+			tiles[index] = index;
+		}
+
+		for (int count = tiles.length; count > 1; count--) {
+			other = (int) (rank % count);
+			swap = tiles[count - 1];
+			tiles[count - 1] = tiles[other];
+			tiles[other] = swap;
+			rank = rank / count;
+		}
+
+		return new SlidingBlockState(geometry, tiles);
+	}
+
+	/**
+	 * Zobrist hash of the tiles.
+	 * 
+	 * The exclusive or of a random key for each tile, including the blank, at
+	 * its index. It is cached and updated as each tile is written, so taking
+	 * an action changes it in constant time.
+	 * 
+	 * @return the 64-bit hash
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.State#hash64()
+	 */
+	@Override
+	public long hash64() {
+		return hash;
+	}
+
 	/**
 	 * Hash code.
 	 * 
 	 * In order to use the SlidingBlockState in a hash table (such as
 	 * HashSet&lt;&gt;) or a Map (such as HashMap&lt;&gt;) we need to provide a
 	 * has function. The hash should be the same for two objects that are the
-	 * same, but as different as possible for other objects. We simply use the
-	 * tiles to create a number using a radix of the board size.
+	 * same, but as different as possible for other objects. The cached
+	 * Zobrist hash is folded to 32 bits, so no tiles are read.
 	 * 
 	 * @return the hash value
 	 */
@@ -332,15 +771,18 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * 
 	 * @see java.lang.Object#hashCode()
 	 */
+	@Override
 	public int hashCode() {
-		return Arrays.deepHashCode(tiles);
+		return (int) (hash ^ (hash >>> 32));
 	}
 
 	/**
 	 * A toString method.
 	 * 
-	 * Creates a String with numbers in the appropriate places for tiles. NOTE:
-	 * This only works for the 8-puzzle currently.
+	 * Creates a String with numbers in the appropriate places for tiles, one
+	 * row to a line. When every tile is a single digit they are written side
+	 * by side, as for the 8-puzzle; otherwise they are right aligned in
+	 * columns separated by spaces.
 	 */
 	/*
 	 * (non-Javadoc)
@@ -348,16 +790,28 @@ public class SlidingBlockState extends edu.smcm.ai.search.State {
 	 * @see java.lang.Object#toString()
 	 */
 	public String toString() {
-		String result;
-
-		result = "";
-		for (int row = 0; row < tiles.length; row++) {
-			for (int column = 0; column < tiles[0].length; column++) {
-				result = result + tiles[row][column];
+		StringBuilder result;
+		String tile;
+		int width;
+
+		width = Integer.toString(geometry.tiles() - 1).length();
+		result = new StringBuilder(geometry.tiles() * (width + 1));
+		for (int row = 0; row < geometry.rows(); row++) {
+			for (int column = 0; column < geometry.columns(); column++) {
+				tile = Integer.toString(tileAt(row, column));
+				if (width > 1) {
+					if (column > 0) {
+						result.append(' ');
+					}
+					for (int pad = tile.length(); pad < width; pad++) {
+						result.append(' ');
+					}
+				}
+				result.append(tile);
 			}
-			result = result + '\n';
+			result.append('\n');
 		}
 
-		return result;
+		return result.toString();
 	}
 }
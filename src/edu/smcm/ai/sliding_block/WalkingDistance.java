@@ -0,0 +1,180 @@
+package edu.smcm.ai.sliding_block;
+
+import java.util.ArrayDeque;
+
+import edu.smcm.ai.search.Heuristic;
+import edu.smcm.ai.search.State;
+import edu.smcm.utils.LongHashMap;
+
+/**
+ * The walking distance heuristic of Ken'ichiro Takahashi.
+ * 
+ * Vertically a board is seen only as how many tiles of each goal row are in
+ * each row, together with the row of the blank. A move takes any tile from a
+ * row next to the blank into the blank's row. The fewest such moves to reach
+ * the goal is found once for each size by breadth-first search over these
+ * abstract boards and kept in a table shared by all searches. The goal is
+ * symmetric about its diagonal, so the same table serves for the columns, and
+ * the walking distance is the sum of the two lookups. Tiles moving in a row
+ * never help in a column, so the sum is admissible, and it is never less than
+ * the Manhattan distance.
+ * 
+ * NOTE: an abstract board is packed into a long at three bits a count, so
+ * boards larger than 4x4 are not supported, and the table is shared between
+ * rows and columns, so the board must be square.
+ */
+public class WalkingDistance extends Heuristic {
+
+	/**
+	 * The largest size of board supported.
+	 */
+	public static final int size_limit = 4;
+
+	/**
+	 * The number of bits used for each count.
+	 */
+	private static final int bits = 3;
+
+	/**
+	 * The tables of distances for each size, built when first needed.
+	 */
+	private static final LongHashMap<?>[] tables = new LongHashMap<?>[size_limit + 1];
+
+	/**
+	 * The table for the size of the last state seen.
+	 */
+	private LongHashMap<Integer> table;
+
+	/**
+	 * The size of the last state seen.
+	 */
+	private int table_size;
+
+	/**
+	 * Walking distance of a state.
+	 */
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see edu.smcm.ai.search.Heuristic#cost(edu.smcm.ai.search.State)
+	 */
+	@Override
+	public double cost(State state) {
+		
+		SlidingBlockState actual = (SlidingBlockState) state;
+		int size = actual.size();
+		
+		if (size != table_size) {
+			table = table(size);
+			table_size = size;
+		}
+		
+		return table.get(key(actual, true)) + table.get(key(actual, false));
+	}
+
+	/**
+	 * Pack the abstract board of a state.
+	 * 
+	 * @param state
+	 *            the state
+	 * @param rows
+	 *            true for the rows, false for the columns
+	 * @return the packed abstract board
+	 */
+	private static long key(SlidingBlockState state, boolean rows) {
+		BoardGeometry geometry = state.geometry();
+		int size = geometry.rows();
+		long result = 0;
+		int tile;
+		int line;
+		int goal;
+		
+		for (int index = 0; index < geometry.tiles(); index++) {
+			tile = state.tileAt(index);
+			line = rows ? geometry.row(index) : geometry.column(index);
+			if (tile == 0) {
+				result |= (long) line << (bits * geometry.tiles());
+			} else {
+				goal = geometry.goal(tile);
+				result += 1L << (bits * (line * size + (rows ? geometry.row(goal) : geometry.column(goal))));
+			}
+		}
+		
+		return result;
+	}
+
+	/**
+	 * Get the table of distances for a size, building it if need be.
+	 * 
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @return distances from the goal of every abstract board
+	 */
+	@SuppressWarnings("unchecked")
+	private static synchronized LongHashMap<Integer> table(int size) {
+		if (size < 2 || size > size_limit) {
+			throw new UnsupportedOperationException("Walking distance supports boards up to " + size_limit + "x"
+					+ size_limit);
+		}
+		
+		if (null == tables[size]) {
+			tables[size] = build(size);
+		}
+		
+		return (LongHashMap<Integer>) tables[size];
+	}
+
+	/**
+	 * Build the table of distances by breadth-first search from the goal.
+	 * 
+	 * @param size
+	 *            length of the sides of the puzzle
+	 * @return distances from the goal of every abstract board
+	 */
+	private static LongHashMap<Integer> build(int size) {
+		LongHashMap<Integer> result = new LongHashMap<Integer>();
+		ArrayDeque<Long> queue = new ArrayDeque<Long>();
+		long blank_shift = bits * size * size;
+		long mask = (1L << blank_shift) - 1;
+		long goal = 0;
+		long board;
+		long next;
+		int distance;
+		int blank;
+		int other;
+		
+		// The goal has every tile in its own line, except the blank in line 0
+		for (int line = 0; line < size; line++) {
+			goal += (long) (line == 0 ? size - 1 : size) << (bits * (line * size + line));
+		}
+		
+		result.put(goal, 0);
+		queue.add(goal);
+		
+		while (!queue.isEmpty()) {
+			board = queue.remove();
+			distance = result.get(board);
+			blank = (int) (board >>> blank_shift);
+			
+			for (other = blank - 1; other <= blank + 1; other += 2) {
+				if (other < 0 || other >= size) {
+					continue;
+				}
+				for (int goal_line = 0; goal_line < size; goal_line++) {
+					if (((board >>> (bits * (other * size + goal_line))) & 7) == 0) {
+						continue;
+					}
+					next = (board & mask) - (1L << (bits * (other * size + goal_line)))
+							+ (1L << (bits * (blank * size + goal_line))) | ((long) other << blank_shift);
+					if (!result.containsKey(next)) {
+						result.put(next, distance + 1);
+						queue.add(next);
+					}
+				}
+			}
+		}
+		
+		return result;
+	}
+
+}
@@ -0,0 +1,281 @@
+package edu.smcm.utils;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive long keys to objects.
+ *
+ * Open addressing with linear probing is used, so no object is created per
+ * entry and keys are never boxed. Each slot carries the generation in which it
+ * was filled, so clear() usually takes constant time: it simply starts a new
+ * generation. The values of cleared slots would then stay reachable, keeping
+ * alive whatever they refer to, such as the Nodes of a finished search, so
+ * once the entries cleared since the values were last emptied amount to an
+ * eighth of the slots, clear() empties them all. That costs time in
+ * proportion to the slots, but only after as many puts as an eighth of them,
+ * so clear() is still constant time amortised over the puts.
+ *
+ * @param <V>
+ *            type of the values
+ */
+public class LongHashMap<V> {
+
+	/**
+	 * The keys in each slot.
+	 */
+	private long[] keys;
+
+	/**
+	 * The values in each slot.
+	 */
+	private Object[] values;
+
+	/**
+	 * The generation in which each slot was filled. A slot is only in use if
+	 * this is the current generation.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The current generation.
+	 */
+	private int generation;
+
+	/**
+	 * The number of entries in the map.
+	 */
+	private int size;
+
+	/**
+	 * The number of entries cleared since the values were last emptied, an
+	 * upper bound on the number of slots holding values of earlier
+	 * generations.
+	 */
+	private int stale;
+
+	/**
+	 * A constructor.
+	 */
+	public LongHashMap() {
+		this(16);
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param expected
+	 *            number of entries expected
+	 */
+	public LongHashMap(int expected) {
+		allocate(LongHashing.capacity(expected));
+	}
+
+	/**
+	 * The number of entries in the map.
+	 *
+	 * @return number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine whether the map is empty.
+	 *
+	 * @return true if there are no entries
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Determine whether there is an entry for a key.
+	 *
+	 * @param key
+	 *            key to look for
+	 * @return true if there is an entry for the key
+	 */
+	public boolean containsKey(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Get the value for a key.
+	 *
+	 * @param key
+	 *            key to look for
+	 * @return value for the key, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int slot;
+
+		slot = find(key);
+
+		return (slot < 0) ? null : (V) values[slot];
+	}
+
+	/**
+	 * Associate a value with a key.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 * @return previous value for the key, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		int mask;
+		int slot;
+		V previous;
+
+		if (2 * (size + 1) > keys.length) {
+			rehash(keys.length * 2);
+		}
+
+		mask = keys.length - 1;
+		slot = LongHashing.hash(key) & mask;
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				previous = (V) values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		stamps[slot] = generation;
+		size++;
+
+		return null;
+	}
+
+	/**
+	 * Remove the entry for a key.
+	 *
+	 * Later entries in the same run of slots are shifted back, so no
+	 * tombstones are left behind.
+	 *
+	 * @param key
+	 *            the key
+	 * @return value that was removed, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int mask;
+		int slot;
+		int next;
+		int home;
+		V previous;
+
+		slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+
+		previous = (V) values[slot];
+		mask = keys.length - 1;
+		next = (slot + 1) & mask;
+		while (stamps[next] == generation) {
+			home = LongHashing.hash(keys[next]) & mask;
+			// Move the entry back if its home is not in (slot, next]
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				keys[slot] = keys[next];
+				values[slot] = values[next];
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+
+		stamps[slot] = 0;
+		values[slot] = null;
+		size--;
+
+		return previous;
+	}
+
+	/**
+	 * Remove all entries, in constant time amortised over the puts.
+	 */
+	public void clear() {
+		stale += size;
+		size = 0;
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamps, 0);
+			generation = 1;
+			stale = keys.length;
+		}
+		if (stale >= keys.length / 8) {
+			Arrays.fill(values, null);
+			stale = 0;
+		}
+	}
+
+	/**
+	 * Find the slot holding a key.
+	 *
+	 * @param key
+	 *            key to look for
+	 * @return the slot, or -1 if the key is not present
+	 */
+	private int find(long key) {
+		int mask;
+		int slot;
+
+		mask = keys.length - 1;
+		slot = LongHashing.hash(key) & mask;
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Allocate empty tables.
+	 *
+	 * @param capacity
+	 *            number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		stamps = new int[capacity];
+		generation = 1;
+		size = 0;
+		stale = 0;
+	}
+
+	/**
+	 * Move all entries into larger tables.
+	 *
+	 * @param capacity
+	 *            new number of slots, a power of two
+	 */
+	@SuppressWarnings("unchecked")
+	private void rehash(int capacity) {
+		long[] old_keys;
+		Object[] old_values;
+		int[] old_stamps;
+		int old_generation;
+
+		old_keys = keys;
+		old_values = values;
+		old_stamps = stamps;
+		old_generation = generation;
+
+		allocate(capacity);
+		for (int slot = 0; slot < old_keys.length; slot++) {
+			if (old_stamps[slot] == old_generation) {
+				put(old_keys[slot], (V) old_values[slot]);
+			}
+		}
+	}
+}
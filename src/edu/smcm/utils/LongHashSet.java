@@ -0,0 +1,222 @@
+package edu.smcm.utils;
+
+import java.util.Arrays;
+
+/**
+ * A hash set of primitive long values.
+ *
+ * Open addressing with linear probing is used, so no object is created per
+ * element and values are never boxed. Each slot carries the generation in
+ * which it was filled, so clear() takes constant time: it simply starts a new
+ * generation.
+ */
+public class LongHashSet {
+
+	/**
+	 * The values in each slot.
+	 */
+	private long[] keys;
+
+	/**
+	 * The generation in which each slot was filled. A slot is only in use if
+	 * this is the current generation.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The current generation.
+	 */
+	private int generation;
+
+	/**
+	 * The number of elements in the set.
+	 */
+	private int size;
+
+	/**
+	 * A constructor.
+	 */
+	public LongHashSet() {
+		this(16);
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param expected
+	 *            number of elements expected
+	 */
+	public LongHashSet(int expected) {
+		allocate(LongHashing.capacity(expected));
+	}
+
+	/**
+	 * The number of elements in the set.
+	 *
+	 * @return number of elements
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine whether the set is empty.
+	 *
+	 * @return true if there are no elements
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Determine whether a value is in the set.
+	 *
+	 * @param key
+	 *            value to look for
+	 * @return true if the value is in the set
+	 */
+	public boolean contains(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Add a value to the set.
+	 *
+	 * @param key
+	 *            value to add
+	 * @return true if the value was not already in the set
+	 */
+	public boolean add(long key) {
+		int mask;
+		int slot;
+
+		if (2 * (size + 1) > keys.length) {
+			rehash(keys.length * 2);
+		}
+
+		mask = keys.length - 1;
+		slot = LongHashing.hash(key) & mask;
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		stamps[slot] = generation;
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * Remove a value from the set.
+	 *
+	 * Later elements in the same run of slots are shifted back, so no
+	 * tombstones are left behind.
+	 *
+	 * @param key
+	 *            value to remove
+	 * @return true if the value was in the set
+	 */
+	public boolean remove(long key) {
+		int mask;
+		int slot;
+		int next;
+		int home;
+
+		slot = find(key);
+		if (slot < 0) {
+			return false;
+		}
+
+		mask = keys.length - 1;
+		next = (slot + 1) & mask;
+		while (stamps[next] == generation) {
+			home = LongHashing.hash(keys[next]) & mask;
+			// Move the element back if its home is not in (slot, next]
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				keys[slot] = keys[next];
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+
+		stamps[slot] = 0;
+		size--;
+
+		return true;
+	}
+
+	/**
+	 * Remove all elements in constant time.
+	 */
+	public void clear() {
+		size = 0;
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamps, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Find the slot holding a value.
+	 *
+	 * @param key
+	 *            value to look for
+	 * @return the slot, or -1 if the value is not present
+	 */
+	private int find(long key) {
+		int mask;
+		int slot;
+
+		mask = keys.length - 1;
+		slot = LongHashing.hash(key) & mask;
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Allocate an empty table.
+	 *
+	 * @param capacity
+	 *            number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		stamps = new int[capacity];
+		generation = 1;
+		size = 0;
+	}
+
+	/**
+	 * Move all elements into a larger table.
+	 *
+	 * @param capacity
+	 *            new number of slots, a power of two
+	 */
+	private void rehash(int capacity) {
+		long[] old_keys;
+		int[] old_stamps;
+		int old_generation;
+
+		old_keys = keys;
+		old_stamps = stamps;
+		old_generation = generation;
+
+		allocate(capacity);
+		for (int slot = 0; slot < old_keys.length; slot++) {
+			if (old_stamps[slot] == old_generation) {
+				add(old_keys[slot]);
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package edu.smcm.utils;
+
+/**
+ * Hashing shared by the open-addressing tables of primitive longs.
+ */
+class LongHashing {
+
+	/**
+	 * Spread the bits of a key. This is the finalisation step of MurmurHash3.
+	 *
+	 * @param key
+	 *            the key
+	 * @return hash of the key
+	 */
+	static int hash(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+
+		return (int) key;
+	}
+
+	/**
+	 * The number of slots needed for a number of elements.
+	 *
+	 * @param expected
+	 *            number of elements expected
+	 * @return a power of two at least twice the number of elements
+	 */
+	static int capacity(int expected) {
+		int result;
+
+		result = 16;
+		while (result < 2 * expected) {
+			result = result * 2;
+		}
+
+		return result;
+	}
+}
@@ -0,0 +1,264 @@
+package edu.smcm.utils;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive long keys to primitive int values.
+ *
+ * Open addressing with linear probing is used, so no object is created per
+ * entry and neither keys nor values are ever boxed. Each slot carries the
+ * generation in which it was filled, so clear() takes constant time: it
+ * simply starts a new generation. A value that is not present is reported as
+ * a missing value chosen when the map is made.
+ */
+public class LongIntHashMap {
+
+	/**
+	 * The keys in each slot.
+	 */
+	private long[] keys;
+
+	/**
+	 * The values in each slot.
+	 */
+	private int[] values;
+
+	/**
+	 * The generation in which each slot was filled. A slot is only in use if
+	 * this is the current generation.
+	 */
+	private int[] stamps;
+
+	/**
+	 * The current generation.
+	 */
+	private int generation;
+
+	/**
+	 * The number of entries in the map.
+	 */
+	private int size;
+
+	/**
+	 * The value reported for a key that is not present.
+	 */
+	private int missing;
+
+	/**
+	 * A constructor with -1 as the missing value.
+	 */
+	public LongIntHashMap() {
+		this(16, -1);
+	}
+
+	/**
+	 * A constructor.
+	 *
+	 * @param expected
+	 *            number of entries expected
+	 * @param missing
+	 *            value reported for a key that is not present
+	 */
+	public LongIntHashMap(int expected, int missing) {
+		this.missing = missing;
+		allocate(LongHashing.capacity(expected));
+	}
+
+	/**
+	 * The number of entries in the map.
+	 *
+	 * @return number of entries
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Determine whether the map is empty.
+	 *
+	 * @return true if there are no entries
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Determine whether there is an entry for a key.
+	 *
+	 * @param key
+	 *            key to look for
+	 * @return true if there is an entry for the key
+	 */
+	public boolean containsKey(long key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Get the value for a key.
+	 *
+	 * @param key
+	 *            key to look for
+	 * @return value for the key, or the missing value if there is none
+	 */
+	public int get(long key) {
+		int slot;
+
+		slot = find(key);
+
+		return (slot < 0) ? missing : values[slot];
+	}
+
+	/**
+	 * Associate a value with a key.
+	 *
+	 * @param key
+	 *            the key
+	 * @param value
+	 *            the value
+	 * @return previous value for the key, or the missing value if there was
+	 *         none
+	 */
+	public int put(long key, int value) {
+		int mask;
+		int slot;
+		int previous;
+
+		if (2 * (size + 1) > keys.length) {
+			rehash(keys.length * 2);
+		}
+
+		mask = keys.length - 1;
+		slot = LongHashing.hash(key) & mask;
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				previous = values[slot];
+				values[slot] = value;
+				return previous;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = key;
+		values[slot] = value;
+		stamps[slot] = generation;
+		size++;
+
+		return missing;
+	}
+
+	/**
+	 * Remove the entry for a key.
+	 *
+	 * Later entries in the same run of slots are shifted back, so no
+	 * tombstones are left behind.
+	 *
+	 * @param key
+	 *            the key
+	 * @return value that was removed, or the missing value if there was none
+	 */
+	public int remove(long key) {
+		int mask;
+		int slot;
+		int next;
+		int home;
+		int previous;
+
+		slot = find(key);
+		if (slot < 0) {
+			return missing;
+		}
+
+		previous = values[slot];
+		mask = keys.length - 1;
+		next = (slot + 1) & mask;
+		while (stamps[next] == generation) {
+			home = LongHashing.hash(keys[next]) & mask;
+			// Move the entry back if its home is not in (slot, next]
+			if (((next - home) & mask) >= ((next - slot) & mask)) {
+				keys[slot] = keys[next];
+				values[slot] = values[next];
+				slot = next;
+			}
+			next = (next + 1) & mask;
+		}
+
+		stamps[slot] = 0;
+		size--;
+
+		return previous;
+	}
+
+	/**
+	 * Remove all entries in constant time.
+	 */
+	public void clear() {
+		size = 0;
+		generation++;
+		if (generation == Integer.MAX_VALUE) {
+			Arrays.fill(stamps, 0);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Find the slot holding a key.
+	 *
+	 * @param key
+	 *            key to look for
+	 * @return the slot, or -1 if the key is not present
+	 */
+	private int find(long key) {
+		int mask;
+		int slot;
+
+		mask = keys.length - 1;
+		slot = LongHashing.hash(key) & mask;
+		while (stamps[slot] == generation) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Allocate empty tables.
+	 *
+	 * @param capacity
+	 *            number of slots, a power of two
+	 */
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		stamps = new int[capacity];
+		generation = 1;
+		size = 0;
+	}
+
+	/**
+	 * Move all entries into larger tables.
+	 *
+	 * @param capacity
+	 *            new number of slots, a power of two
+	 */
+	private void rehash(int capacity) {
+		long[] old_keys;
+		int[] old_values;
+		int[] old_stamps;
+		int old_generation;
+
+		old_keys = keys;
+		old_values = values;
+		old_stamps = stamps;
+		old_generation = generation;
+
+		allocate(capacity);
+		for (int slot = 0; slot < old_keys.length; slot++) {
+			if (old_stamps[slot] == old_generation) {
+				put(old_keys[slot], old_values[slot]);
+			}
+		}
+	}
+}